@@ -0,0 +1,55 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+/**
+ * The engine and the inputs of the benchmarks.
+ */
+final class BenchmarkEngines {
+
+    private BenchmarkEngines() {
+    }
+
+    /**
+     * @return  An engine on the classpath dictionary, with the defaults
+     *          of {@link EngineSettings} but for the given caches.
+     */
+    static JumbleEngine newEngine(boolean subWordCache, boolean gamePool) {
+        EngineSettings settings = new EngineSettings();
+        settings.setSubWordCacheEnabled(subWordCache);
+        settings.setGamePoolEnabled(gamePool);
+        return new JumbleEngine(settings);
+    }
+
+    /**
+     * @param length  The length of the words, or null for any.
+     * @return  `count` random words of the dictionary (repeats allowed).
+     */
+    static String[] words(JumbleEngine engine, Integer length, int count) {
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            words[i] = engine.pickOneRandomWord(length);
+            if (words[i] == null) {
+                throw new IllegalArgumentException("Invalid length=[" + length + "], expect words of that length");
+            }
+        }
+        return words;
+    }
+
+    /**
+     * @return  For each of `words`, a word of about the same length which
+     *          is not in the dictionary.
+     */
+    static String[] misses(JumbleEngine engine, String[] words) {
+        String[] misses = new String[words.length];
+        for (int i = 0; i < words.length; i++) {
+            // replace a letter until not a word
+            char[] letters = words[i].toCharArray();
+            int at = letters.length / 2;
+            do {
+                letters[at] = (char) ('a' + (letters[at] - 'a' + 7) % 26);
+                misses[i] = new String(letters);
+            } while (engine.exists(misses[i]));
+        }
+        return misses;
+    }
+
+}
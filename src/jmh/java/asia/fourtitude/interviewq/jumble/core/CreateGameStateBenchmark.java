@@ -0,0 +1,53 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link JumbleEngine#createGameState(Integer, Integer)}
+ * for the default game (6 letters, sub words of 3 or more), with and
+ * without the pre-generated game pool. In a tight loop the pool is
+ * drained faster than it refills, so this is its worst case.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CreateGameStateBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean gamePool;
+
+    private JumbleEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.engine = BenchmarkEngines.newEngine(true, this.gamePool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.engine.close();
+    }
+
+    @Benchmark
+    public GameState createGameState() {
+        return this.engine.createGameState(6, 3);
+    }
+
+}
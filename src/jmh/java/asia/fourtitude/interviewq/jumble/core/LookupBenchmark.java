@@ -0,0 +1,87 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the single word operations of {@link JumbleEngine}:
+ * `scramble`, `exists` (hits and misses), `searchWords` and
+ * `pickOneRandomWord`. Each call takes the next of {@value #INPUTS}
+ * random inputs, see the "jmh" profile of "pom.xml" to run it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LookupBenchmark {
+
+    static final int INPUTS = 1024;
+
+    private JumbleEngine engine;
+
+    private String[] hits;
+
+    private String[] misses;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.engine = BenchmarkEngines.newEngine(true, true);
+        this.hits = BenchmarkEngines.words(this.engine, null, INPUTS);
+        this.misses = BenchmarkEngines.misses(this.engine, this.hits);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.engine.close();
+    }
+
+    private String nextHit() {
+        return this.hits[this.next++ & (INPUTS - 1)];
+    }
+
+    @Benchmark
+    public String scramble() {
+        return this.engine.scramble(nextHit());
+    }
+
+    @Benchmark
+    public boolean existsHit() {
+        return this.engine.exists(nextHit());
+    }
+
+    @Benchmark
+    public boolean existsMiss() {
+        return this.engine.exists(this.misses[this.next++ & (INPUTS - 1)]);
+    }
+
+    @Benchmark
+    public Collection<String> searchWords() {
+        // the first letter, last letter and length of a word: always a match
+        String word = nextHit();
+        return this.engine.searchWords(word.charAt(0), word.charAt(word.length() - 1), word.length());
+    }
+
+    @Benchmark
+    public String pickOneRandomWord() {
+        // lengths 3 to 10
+        return this.engine.pickOneRandomWord(3 + (this.next++ & 7));
+    }
+
+}
@@ -0,0 +1,62 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link JumbleEngine#wordsMatchingPrefix(String)}, from
+ * short prefixes (thousands of matches) to long ones (a few matches).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrefixBenchmark {
+
+    @Param({ "1", "2", "4", "8" })
+    public int prefixLength;
+
+    private JumbleEngine engine;
+
+    private String[] prefixes;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.engine = BenchmarkEngines.newEngine(true, true);
+        this.prefixes = BenchmarkEngines.words(this.engine, null, LookupBenchmark.INPUTS);
+        for (int i = 0; i < this.prefixes.length; i++) {
+            // shorter words are their own prefix
+            String word = this.prefixes[i];
+            this.prefixes[i] = word.substring(0, Math.min(this.prefixLength, word.length()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.engine.close();
+    }
+
+    @Benchmark
+    public Collection<String> wordsMatchingPrefix() {
+        return this.engine.wordsMatchingPrefix(this.prefixes[this.next++ & (LookupBenchmark.INPUTS - 1)]);
+    }
+
+}
@@ -0,0 +1,62 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link JumbleEngine#generateSubWords(String, Integer)} by
+ * word length, with and without the sub word cache. The inputs are
+ * {@value LookupBenchmark#INPUTS} random words, so the cache is warm
+ * after the first round of them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SubWordsBenchmark {
+
+    @Param({ "4", "6", "8", "10", "12" })
+    public int wordLength;
+
+    @Param({ "false", "true" })
+    public boolean subWordCache;
+
+    private JumbleEngine engine;
+
+    private String[] words;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.engine = BenchmarkEngines.newEngine(this.subWordCache, false);
+        this.words = BenchmarkEngines.words(this.engine, this.wordLength, LookupBenchmark.INPUTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.engine.close();
+    }
+
+    @Benchmark
+    public Collection<String> generateSubWords() {
+        return this.engine.generateSubWords(this.words[this.next++ & (LookupBenchmark.INPUTS - 1)], 3);
+    }
+
+}
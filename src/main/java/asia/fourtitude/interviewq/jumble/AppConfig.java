@@ -1,16 +1,79 @@
 package asia.fourtitude.interviewq.jumble;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import asia.fourtitude.interviewq.jumble.controller.AsyncSettings;
+import asia.fourtitude.interviewq.jumble.controller.EngineExecutor;
+import asia.fourtitude.interviewq.jumble.core.EngineSettings;
 import asia.fourtitude.interviewq.jumble.core.JumbleEngine;
+import asia.fourtitude.interviewq.jumble.store.GameRepository;
+import asia.fourtitude.interviewq.jumble.store.GameStore;
+import asia.fourtitude.interviewq.jumble.store.GameStoreSettings;
+import asia.fourtitude.interviewq.jumble.store.JournaledGameRepository;
 
 @Configuration
 public class AppConfig {
 
     @Bean
-    public JumbleEngine jumbleEngine() {
-        return new JumbleEngine();
+    @ConfigurationProperties(prefix = "jumble.engine")
+    public EngineSettings engineSettings() {
+        return new EngineSettings();
+    }
+
+    @Bean
+    public JumbleEngine jumbleEngine(EngineSettings engineSettings) {
+        return new JumbleEngine(engineSettings);
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "jumble.store")
+    public GameStoreSettings gameStoreSettings() {
+        return new GameStoreSettings();
+    }
+
+    @Bean
+    public GameRepository gameRepository(GameStoreSettings gameStoreSettings) {
+        if (StringUtils.isEmpty(gameStoreSettings.getJournalDir())) {
+            return new GameStore(gameStoreSettings);
+        }
+        return new JournaledGameRepository(gameStoreSettings);
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "jumble.async")
+    public AsyncSettings asyncSettings() {
+        return new AsyncSettings();
+    }
+
+    @Bean
+    public EngineExecutor engineExecutor(
+            AsyncSettings asyncSettings,
+            @Value("${jumble.virtual-threads.enabled:false}") boolean virtualThreads) {
+        // still bounded by the settings, virtual threads or not
+        return new EngineExecutor(asyncSettings,
+                virtualThreads ? VirtualThreads.factory("jumble-engine-") : null);
+    }
+
+    /**
+     * Runs every request of the embedded Tomcat on its own virtual thread
+     * (Java 21+), instead of its pool of platform threads: so slow clients
+     * and long polls do not hold OS threads.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "jumble.virtual-threads.enabled", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (protocolHandler instanceof AbstractProtocol) {
+                ((AbstractProtocol<?>) protocolHandler).setExecutor(VirtualThreads.perTaskExecutor("tomcat-handler-"));
+            }
+        };
     }
 
 }
@@ -0,0 +1,65 @@
+package asia.fourtitude.interviewq.jumble;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import asia.fourtitude.interviewq.jumble.core.JumbleEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every operation of {@link JumbleEngine} (the public methods but
+ * for the metrics getters and `close`), as the "jumble.engine" timer
+ * tagged by `method`, and by `exception` (simple class name, or "none").
+ *
+ * The timers are kept by method and exception, rather than registered
+ * again on every call of the hot operations (eg: `exists`).
+ */
+@Aspect
+public class EngineTimingAspect {
+
+    static final String TIMER = "jumble.engine";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public EngineTimingAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * asia.fourtitude.interviewq.jumble.core.JumbleEngine.*(..))"
+            + " && !execution(* *.get*Metrics()) && !execution(* *.close())")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            timer(method, exception).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String method, String exception) {
+        String key = "none".equals(exception) ? method : method + ' ' + exception;
+        Timer timer = this.timers.get(key);
+        if (timer == null) {
+            timer = this.timers.computeIfAbsent(key, k -> Timer.builder(TIMER)
+                    .description("The operations of the jumble engine")
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .register(this.registry));
+        }
+        return timer;
+    }
+
+}
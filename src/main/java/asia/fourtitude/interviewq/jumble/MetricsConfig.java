@@ -0,0 +1,161 @@
+package asia.fourtitude.interviewq.jumble;
+
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import asia.fourtitude.interviewq.jumble.controller.EngineExecutor;
+import asia.fourtitude.interviewq.jumble.core.BloomFilterMetrics;
+import asia.fourtitude.interviewq.jumble.core.GamePoolMetrics;
+import asia.fourtitude.interviewq.jumble.core.JumbleEngine;
+import asia.fourtitude.interviewq.jumble.core.SubWordCacheMetrics;
+import asia.fourtitude.interviewq.jumble.store.GameJournalMetrics;
+import asia.fourtitude.interviewq.jumble.store.GameRepository;
+import asia.fourtitude.interviewq.jumble.store.GameStore;
+import asia.fourtitude.interviewq.jumble.store.GameStoreMetrics;
+import asia.fourtitude.interviewq.jumble.store.JournaledGameRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Micrometer meters of the application, published by Spring Boot
+ * Actuator (eg: at "/actuator/prometheus"), next to its own ones (eg:
+ * "http.server.requests" for every endpoint).
+ *
+ * - jumble.engine: timer of every engine operation, see {@link EngineTimingAspect}.
+ * - cache.gets / cache.evictions / cache.size: the sub word cache and
+ *   the game pool (`cache` tag), as the Micrometer cache meters.
+ * - jumble.bloom.filter.*: the Bloom filter in front of the lookups.
+ * - jumble.games.*: games held, created, expired, ..., and the guesses
+ *   played, by `result` (correct or wrong).
+ * - jumble.journal.*: the journal, if enabled.
+ * - jumble.engine.executor.*: the pool of the async endpoints.
+ *
+ * The counters read the metrics objects of the beans, so nothing else is
+ * updated on the hot paths. Rates (eg: games created per second) and
+ * ratios (eg: correct guesses) are for the monitoring to compute.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public EngineTimingAspect engineTimingAspect(MeterRegistry registry) {
+        return new EngineTimingAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder jumbleEngineMetrics(JumbleEngine jumbleEngine) {
+        return registry -> {
+            SubWordCacheMetrics subWords = jumbleEngine.getSubWordCacheMetrics();
+            cacheGets(registry, "subWords", "hit", subWords, SubWordCacheMetrics::getHits);
+            cacheGets(registry, "subWords", "miss", subWords, SubWordCacheMetrics::getMisses);
+            FunctionCounter.builder("cache.evictions", subWords, SubWordCacheMetrics::getEvictions)
+                    .tag("cache", "subWords")
+                    .register(registry);
+            Gauge.builder("cache.size", subWords, SubWordCacheMetrics::getWeight)
+                    .description("The sub word ids cached")
+                    .tag("cache", "subWords")
+                    .register(registry);
+
+            GamePoolMetrics gamePool = jumbleEngine.getGamePoolMetrics();
+            cacheGets(registry, "gamePool", "hit", gamePool, GamePoolMetrics::getHits);
+            cacheGets(registry, "gamePool", "miss", gamePool, GamePoolMetrics::getMisses);
+            Gauge.builder("cache.size", gamePool, GamePoolMetrics::getAvailable)
+                    .description("The games ready")
+                    .tag("cache", "gamePool")
+                    .register(registry);
+            FunctionCounter.builder("jumble.game.pool.produced", gamePool, GamePoolMetrics::getProduced)
+                    .register(registry);
+            FunctionCounter.builder("jumble.game.pool.failed", gamePool, GamePoolMetrics::getFailed)
+                    .register(registry);
+
+            BloomFilterMetrics filter = jumbleEngine.getBloomFilterMetrics();
+            FunctionCounter.builder("jumble.bloom.filter.rejected", filter, BloomFilterMetrics::getRejected)
+                    .description("The lookups answered by the Bloom filter alone")
+                    .register(registry);
+            FunctionCounter.builder("jumble.bloom.filter.passed", filter, BloomFilterMetrics::getPassed)
+                    .register(registry);
+            FunctionCounter.builder("jumble.bloom.filter.false.positives", filter, BloomFilterMetrics::getFalsePositives)
+                    .register(registry);
+        };
+    }
+
+    private static <T> void cacheGets(MeterRegistry registry, String cache, String result,
+            T metrics, ToDoubleFunction<T> count) {
+        FunctionCounter.builder("cache.gets", metrics, count)
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder gameRepositoryMetrics(GameRepository gameRepository) {
+        return registry -> {
+            GameStoreMetrics store = null;
+            if (gameRepository instanceof GameStore) {
+                store = ((GameStore) gameRepository).getMetrics();
+            } else if (gameRepository instanceof JournaledGameRepository) {
+                JournaledGameRepository journaled = (JournaledGameRepository) gameRepository;
+                store = journaled.getMetrics();
+                bindJournal(registry, journaled.getJournalMetrics());
+            }
+            Gauge.builder("jumble.games.live", gameRepository, GameRepository::size)
+                    .description("The games held, some may be due to expire")
+                    .register(registry);
+            if (store == null) {
+                return;
+            }
+            FunctionCounter.builder("jumble.games.created", store, GameStoreMetrics::getAdded)
+                    .description("The games added to the store (and recovered from the journal)")
+                    .register(registry);
+            FunctionCounter.builder("jumble.games.expired", store, GameStoreMetrics::getExpired)
+                    .register(registry);
+            FunctionCounter.builder("jumble.games.evicted", store, GameStoreMetrics::getEvicted)
+                    .register(registry);
+            FunctionCounter.builder("jumble.games.removed", store, GameStoreMetrics::getRemoved)
+                    .register(registry);
+            FunctionCounter.builder("jumble.games.guesses", store, GameStoreMetrics::getCorrectGuesses)
+                    .tag("result", "correct")
+                    .register(registry);
+            FunctionCounter.builder("jumble.games.guesses", store, GameStoreMetrics::getWrongGuesses)
+                    .tag("result", "wrong")
+                    .register(registry);
+        };
+    }
+
+    private static void bindJournal(MeterRegistry registry, GameJournalMetrics journal) {
+        FunctionCounter.builder("jumble.journal.records", journal, GameJournalMetrics::getRecords)
+                .register(registry);
+        FunctionCounter.builder("jumble.journal.bytes", journal, GameJournalMetrics::getBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("jumble.journal.syncs", journal, GameJournalMetrics::getSyncs)
+                .register(registry);
+        FunctionCounter.builder("jumble.journal.snapshots", journal, GameJournalMetrics::getSnapshots)
+                .register(registry);
+        Gauge.builder("jumble.journal.pending", journal, GameJournalMetrics::getPending)
+                .description("The records queued, not written yet")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder engineExecutorMetrics(EngineExecutor engineExecutor) {
+        return registry -> {
+            FunctionCounter.builder("jumble.engine.executor.completed", engineExecutor, EngineExecutor::getCompleted)
+                    .register(registry);
+            FunctionCounter.builder("jumble.engine.executor.rejected", engineExecutor, EngineExecutor::getRejected)
+                    .description("The requests given the fallback as the queue was full")
+                    .register(registry);
+            FunctionCounter.builder("jumble.engine.executor.timed.out", engineExecutor, EngineExecutor::getTimedOut)
+                    .register(registry);
+            Gauge.builder("jumble.engine.executor.queued", engineExecutor, EngineExecutor::getQueued)
+                    .register(registry);
+            Gauge.builder("jumble.engine.executor.active", engineExecutor, EngineExecutor::getActive)
+                    .register(registry);
+        };
+    }
+
+}
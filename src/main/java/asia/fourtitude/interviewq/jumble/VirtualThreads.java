@@ -0,0 +1,69 @@
+package asia.fourtitude.interviewq.jumble;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads (Java 21+), for the "jumble.virtual-threads.enabled"
+ * property (see "AppConfig").
+ *
+ * The sources stay Java 8 (see the "java21" profile of "pom.xml"), so the
+ * Java 21 API is looked up by reflection, once, here only.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return  true if this JVM has virtual threads.
+     */
+    static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param prefix  The thread names, followed by 1, 2, ...
+     * @return  A factory of virtual threads,
+     *          ie: `Thread.ofVirtual().name(prefix, 1).factory()`.
+     * @throws IllegalStateException  If this JVM has no virtual threads.
+     */
+    static ThreadFactory factory(String prefix) {
+        if (! isSupported()) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, running java.version=["
+                    + System.getProperty("java.version") + "]");
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method name = Class.forName("java.lang.Thread$Builder").getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, prefix, 1L);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot create virtual threads", e);
+        }
+    }
+
+    /**
+     * @return  An unbounded executor starting a new virtual thread per task,
+     *          ie: `Executors.newThreadPerTaskExecutor(factory(prefix))`.
+     * @throws IllegalStateException  If this JVM has no virtual threads.
+     */
+    static ExecutorService perTaskExecutor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot create virtual threads", e);
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package asia.fourtitude.interviewq.jumble.controller;
+
+import java.time.Duration;
+
+/**
+ * Limits of {@link EngineExecutor}, behind the async endpoints. Bound from
+ * the "jumble.async.*" application properties (see "AppConfig").
+ */
+public class AsyncSettings {
+
+    private int engineThreads = 4;
+
+    private int engineQueueCapacity = 100;
+
+    private Duration engineTimeout = Duration.ofSeconds(10);
+
+    /**
+     * @return  The number of threads running the engine work.
+     */
+    public int getEngineThreads() {
+        return engineThreads;
+    }
+
+    public void setEngineThreads(int engineThreads) {
+        this.engineThreads = engineThreads;
+    }
+
+    /**
+     * @return  The maximum number of requests waiting for a thread, past
+     *          which they get the fallback response right away.
+     */
+    public int getEngineQueueCapacity() {
+        return engineQueueCapacity;
+    }
+
+    public void setEngineQueueCapacity(int engineQueueCapacity) {
+        this.engineQueueCapacity = engineQueueCapacity;
+    }
+
+    /**
+     * @return  How long a request waits (queued plus running) before it
+     *          gets the fallback response.
+     */
+    public Duration getEngineTimeout() {
+        return engineTimeout;
+    }
+
+    public void setEngineTimeout(Duration engineTimeout) {
+        this.engineTimeout = engineTimeout;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sb.length() == 0 ? "" : ", ").append("engineThreads=[").append(engineThreads).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("engineQueueCapacity=[").append(engineQueueCapacity).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("engineTimeout=[").append(engineTimeout).append(']');
+        return sb.toString();
+    }
+
+}
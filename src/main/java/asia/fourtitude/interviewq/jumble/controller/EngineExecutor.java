@@ -0,0 +1,154 @@
+package asia.fourtitude.interviewq.jumble.controller;
+
+import java.io.Closeable;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Runs the expensive engine work of the async endpoints on its own
+ * bounded pool, so the servlet threads are released right away and the
+ * cheap endpoints (eg: guess) are not queued behind a burst of it.
+ *
+ * A request gets its fallback response, instead of waiting, when the
+ * queue is full (immediately) or when it times out (queued or running).
+ * Work still queued when its request times out is skipped.
+ */
+public class EngineExecutor implements Closeable {
+
+    private final ThreadPoolExecutor executor;
+
+    private final long timeoutMillis;
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder timedOut = new LongAdder();
+
+    public EngineExecutor(AsyncSettings settings) {
+        this(settings, null);
+    }
+
+    /**
+     * @param settings       The pool size, queue capacity and timeout.
+     * @param threadFactory  Creates the threads of the pool (eg: virtual
+     *                       threads), or null for daemon platform threads.
+     *                       The pool stays bounded either way.
+     */
+    public EngineExecutor(AsyncSettings settings, ThreadFactory threadFactory) {
+        Objects.requireNonNull(settings, "settings must not be null");
+        if (settings.getEngineThreads() < 1) {
+            throw new IllegalArgumentException("Invalid engineThreads=[" + settings.getEngineThreads() + "], expect positive integer");
+        }
+        if (settings.getEngineQueueCapacity() < 1) {
+            throw new IllegalArgumentException("Invalid engineQueueCapacity=[" + settings.getEngineQueueCapacity() + "], expect positive integer");
+        }
+        this.timeoutMillis = settings.getEngineTimeout().toMillis();
+        if (this.timeoutMillis < 1) {
+            throw new IllegalArgumentException("Invalid engineTimeout=[" + settings.getEngineTimeout() + "], expect at least 1ms");
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(settings.getEngineThreads(), settings.getEngineThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(settings.getEngineQueueCapacity()),
+                (threadFactory != null) ? threadFactory : runnable -> {
+                    Thread thread = new Thread(runnable, "jumble-engine-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Runs `task` on the engine pool.
+     *
+     * @param task      The engine work, its result is the response. Its
+     *                  exception (if any) is handled as if thrown by the
+     *                  controller.
+     * @param fallback  The response when busy or timed out. Called on the
+     *                  servlet thread.
+     * @return  The result to return from the controller.
+     */
+    public <T> DeferredResult<T> submit(Supplier<T> task, Supplier<T> fallback) {
+        DeferredResult<T> result = new DeferredResult<>(this.timeoutMillis, fallback);
+        result.onTimeout(this.timedOut::increment);
+        try {
+            this.executor.execute(() -> {
+                if (result.isSetOrExpired()) {
+                    // nobody waits for it anymore
+                    return;
+                }
+                try {
+                    result.setResult(task.get());
+                    this.completed.increment();
+                } catch (RuntimeException e) {
+                    result.setErrorResult(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.rejected.increment();
+            result.setResult(fallback.get());
+        }
+        return result;
+    }
+
+    /**
+     * @return  The number of tasks run to completion.
+     */
+    public long getCompleted() {
+        return this.completed.sum();
+    }
+
+    /**
+     * @return  The number of requests given the fallback as the queue was
+     *          full.
+     */
+    public long getRejected() {
+        return this.rejected.sum();
+    }
+
+    /**
+     * @return  The number of requests given the fallback after timing out.
+     */
+    public long getTimedOut() {
+        return this.timedOut.sum();
+    }
+
+    /**
+     * @return  The number of tasks waiting for a thread.
+     */
+    public int getQueued() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * @return  The number of threads running a task.
+     */
+    public int getActive() {
+        return this.executor.getActiveCount();
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sb.length() == 0 ? "" : ", ").append("active=[").append(getActive()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("queued=[").append(getQueued()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("completed=[").append(getCompleted()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("rejected=[").append(getRejected()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("timedOut=[").append(getTimedOut()).append(']');
+        return sb.toString();
+    }
+
+}
@@ -1,28 +1,50 @@
 package asia.fourtitude.interviewq.jumble.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+import javax.validation.Valid;
+
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import asia.fourtitude.interviewq.jumble.core.GameState;
 import asia.fourtitude.interviewq.jumble.core.JumbleEngine;
+import asia.fourtitude.interviewq.jumble.model.GameBatchInput;
 import asia.fourtitude.interviewq.jumble.model.GameGuessInput;
 import asia.fourtitude.interviewq.jumble.model.GameGuessModel;
 import asia.fourtitude.interviewq.jumble.model.GameGuessOutput;
+import asia.fourtitude.interviewq.jumble.store.GameRepository;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -39,17 +61,38 @@ public class GameApiController {
 
     private static final Logger LOG = LoggerFactory.getLogger(GameApiController.class);
 
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    /*
+     * How often the `/batch` writer checks for a failed game creation.
+     */
+    private static final long BATCH_POLL_MILLIS = 100;
+
     private final JumbleEngine jumbleEngine;
 
     /*
      * In-memory database/repository for all the game boards/states.
      */
-    private final Map<String, GameGuessModel> gameBoards;
+    private final GameRepository gameBoards;
+
+    /*
+     * Runs the engine work of the async endpoints.
+     */
+    private final EngineExecutor engineExecutor;
+
+    /*
+     * Writes one game per line, for the streamed `/batch` response: from
+     * the application's mapper, so the same JSON as the other endpoints.
+     */
+    private final ObjectWriter gameWriter;
 
     @Autowired(required = true)
-    public GameApiController(JumbleEngine jumbleEngine) {
+    public GameApiController(JumbleEngine jumbleEngine, GameRepository gameBoards, EngineExecutor engineExecutor,
+            ObjectMapper objectMapper) {
         this.jumbleEngine = jumbleEngine;
-        this.gameBoards = new ConcurrentHashMap<>();
+        this.gameBoards = gameBoards;
+        this.engineExecutor = engineExecutor;
+        this.gameWriter = objectMapper.writerFor(GameGuessOutput.class);
     }
 
     @Operation(
@@ -82,36 +125,204 @@ public class GameApiController {
          * Refer to the method's Javadoc (above) and implement accordingly.
          * Must pass the corresponding unit tests.
          */
-        GameGuessOutput output = new GameGuessOutput();
+        return new ResponseEntity<>(createGame(), HttpStatus.OK);
+    }
 
+    @Operation(
+            summary = "Creates new game board/state, asynchronously",
+            description = "Same as `/new`, but the game is created on the bounded engine pool, not on the request thread. "
+                    + "When that pool is saturated, or the game is not created within `jumble.async.engine-timeout`, responds 503 with a `Retry-After` instead.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Success, same as `/new`",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = GameGuessOutput.class))),
+                    @ApiResponse(
+                            responseCode = "503",
+                            description = "Service Unavailable, the engine is busy",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    examples = {
+                                            @ExampleObject(
+                                                    name = "Busy",
+                                                    description = "Too many games being created, retry later.",
+                                                    value = "{\n" +
+                                                            "  \"result\": \"Game engine busy, try again later.\"\n" +
+                                                            "}") })) })
+    @GetMapping(value = "/new/async", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<GameGuessOutput>> newGameAsync() {
+        return this.engineExecutor.submit(
+                () -> new ResponseEntity<>(createGame(), HttpStatus.OK),
+                GameApiController::engineBusy);
+    }
+
+    private GameGuessOutput createGame() {
         GameState gameState = this.jumbleEngine.createGameState(6, 3);
 
-        /*
-         * TODO:
-         * a) Store the game state to the repository, with unique game board ID
-         * b) Return the game board/state (GameGuessOutput) to caller
-         */
-        
-        String gameId = UUID.randomUUID().toString();
+        GameGuessModel gameGuessModel = newGameBoard(gameState);
+        this.gameBoards.put(gameGuessModel);
+
+        return newGameOutput(gameGuessModel);
+    }
+
+    private static ResponseEntity<GameGuessOutput> engineBusy() {
+        GameGuessOutput output = new GameGuessOutput();
+        output.setResult("Game engine busy, try again later.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(output);
+    }
+
+    @Operation(
+            summary = "Creates many new game boards/states",
+            description = "Creates `count` new game boards/states in parallel, each registered into game engine by its own `id`, same as `/new`. "
+                    + "The games are streamed back as NDJSON (`application/x-ndjson`), one per line, as soon as they are created and registered, in no particular order. "
+                    + "Should a game fail to be created midway, the last line has only the `result`, and the stream stops there.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Success",
+                            content = @Content(
+                                    mediaType = APPLICATION_NDJSON_VALUE,
+                                    examples = {
+                                            @ExampleObject(
+                                                    name = "Success",
+                                                    description = "Created 2 new games/boards and registered into system.",
+                                                    value = "{\"result\":\"Created new game.\",\"id\":\"65e0d7a4-59bf-4065-beb1-3c2220d87e1e\",\"original_word\":\"titans\",\"scramble_word\":\"nisatt\",\"total_words\":29,\"remaining_words\":29,\"guessed_words\":[]}\n"
+                                                            + "{\"result\":\"Created new game.\",\"id\":\"0b1c8f0e-5d55-4b9e-8a3e-cb5c9ad1f7a2\",\"original_word\":\"ranker\",\"scramble_word\":\"nekarr\",\"total_words\":15,\"remaining_words\":15,\"guessed_words\":[]}\n") })),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Bad Request",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = GameGuessOutput.class),
+                                    examples = {
+                                            @ExampleObject(
+                                                    name = "Invalid Length",
+                                                    description = "The `min_length` is greater than `length`.",
+                                                    value = "{\n" +
+                                                            "  \"result\": \"Expect minLength=[5] greater than length=[4]\"\n" +
+                                                            "}") })) })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> newGames(
+            @Parameter(
+                    description = "The number of games, and optionally the `length` (default 6) and `min_length` (default 3) of their words.",
+                    required = true,
+                    schema = @Schema(implementation = GameBatchInput.class),
+                    example = "{\n" +
+                            "  \"count\": 100,\n" +
+                            "  \"length\": 6,\n" +
+                            "  \"min_length\": 3\n" +
+                            "}")
+            @Valid @RequestBody GameBatchInput input) {
+        int count = input.getCount();
+        Integer length = (input.getLength() == null) ? 6 : input.getLength();
+        BlockingQueue<GameState> created = new LinkedBlockingQueue<>();
+        CompletableFuture<Void> done;
+        try {
+            done = this.jumbleEngine.createGameStates(count, length, input.getMinLength(), created::add);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
 
+        StreamingResponseBody body = out -> {
+            List<GameState> states = new ArrayList<>();
+            int written = 0;
+            try {
+                while (written < count) {
+                    GameState state = created.poll(BATCH_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (state == null) {
+                        if (done.isCompletedExceptionally()) {
+                            writeBatchFailure(out, done);
+                            return;
+                        }
+                        continue;
+                    }
+                    states.add(state);
+                    created.drainTo(states);
+
+                    Map<String, GameGuessModel> boards = new LinkedHashMap<>();
+                    for (GameState gameState : states) {
+                        GameGuessModel board = newGameBoard(gameState);
+                        boards.put(board.getId(), board);
+                    }
+                    // registered at once, before any of their IDs goes out
+                    this.gameBoards.putAll(boards.values());
+                    for (GameGuessModel board : boards.values()) {
+                        out.write(this.gameWriter.writeValueAsBytes(newGameOutput(board)));
+                        out.write('\n');
+                    }
+                    out.flush();
+                    written += states.size();
+                    states.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                done.cancel(false);
+            } catch (IOException | RuntimeException e) {
+                // eg: client went away, stop creating the rest
+                done.cancel(false);
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * Reports a request rejected before any response was written (eg:
+     * `/batch` with `min_length` greater than `length`) with its reason as
+     * the `result`, same as the other errors of this API.
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<GameGuessOutput> rejected(ResponseStatusException e) {
+        GameGuessOutput output = new GameGuessOutput();
+        output.setResult(e.getReason());
+        return new ResponseEntity<>(output, e.getStatus());
+    }
+
+    private void writeBatchFailure(OutputStream out, CompletableFuture<Void> done) throws IOException {
+        Throwable cause;
+        try {
+            done.join();
+            return;
+        } catch (CompletionException e) {
+            cause = e.getCause();
+        }
+        LOG.error("Cannot create games", cause);
+        GameGuessOutput output = new GameGuessOutput();
+        output.setResult("Cannot create game: " + cause.getMessage());
+        out.write(this.gameWriter.writeValueAsBytes(output));
+        out.write('\n');
+        out.flush();
+    }
+
+    private static GameGuessModel newGameBoard(GameState gameState) {
+        Date now = new Date();
         GameGuessModel gameGuessModel = new GameGuessModel();
-        gameGuessModel.setId(gameId);
-        gameGuessModel.setCreatedAt(new Date());
-        gameGuessModel.setModifiedAt(new Date());
+        gameGuessModel.setId(UUID.randomUUID().toString());
+        gameGuessModel.setCreatedAt(now);
+        gameGuessModel.setModifiedAt(now);
         gameGuessModel.setGameState(gameState);
+        return gameGuessModel;
+    }
 
-        this.gameBoards.put(gameId, gameGuessModel);
-
+    private static GameGuessOutput newGameOutput(GameGuessModel gameGuessModel) {
+        GameState gameState = gameGuessModel.getGameState();
+        GameGuessOutput output = new GameGuessOutput();
         output.setResult("Created new game.");
-        output.setId(gameId);
+        output.setId(gameGuessModel.getId());
         output.setOriginalWord(gameState.getOriginal());
         output.setScrambleWord(gameState.getScramble());
-        output.setTotalWords(gameState.getSubWords().size());
-        output.setRemainingWords(gameState.getSubWords().size());
+        output.setTotalWords(gameState.getTotalCount());
+        output.setRemainingWords(gameState.getRemainingCount());
         output.setGuessedWords(new ArrayList<>());
-
-
-        return new ResponseEntity<>(output, HttpStatus.OK);
+        return output;
     }
 
     @Operation(
@@ -235,14 +446,37 @@ public class GameApiController {
          */
         GameGuessOutput output = new GameGuessOutput();
 
-        /*
-         * TODO:
-         * a) Validate the input (GameGuessInput)
-         * b) Check records exists in repository (search by input `id`)
-         * c) From the input guessing `word`, implement the game logic
-         * d) Update the game board (and game state) in repository
-         * e) Return the updated game board/state (GameGuessOutput) to caller
-         */
+        if (input == null || StringUtils.isBlank(input.getId())) {
+            output.setResult("Invalid Game ID.");
+            return new ResponseEntity<>(output, HttpStatus.NOT_FOUND);
+        }
+        GameGuessModel board = this.gameBoards.get(input.getId());
+        if (board == null) {
+            output.setResult("Game board/state not found.");
+            return new ResponseEntity<>(output, HttpStatus.NOT_FOUND);
+        }
+
+        // lock free, so concurrent guesses of this game are all kept
+        GameState gameState = board.getGameState();
+        String word = (input.getWord() == null) ? null : input.getWord().trim().toLowerCase(Locale.ROOT);
+        boolean correct = gameState.updateGuessWord(word);
+        board.updateModifiedAt(new Date());
+        this.gameBoards.played(board, correct ? word : null);
+
+        if (! correct) {
+            output.setResult("Guessed incorrectly.");
+        } else if (gameState.getRemainingCount() == 0) {
+            output.setResult("All words guessed.");
+        } else {
+            output.setResult("Guessed correctly.");
+        }
+        output.setId(board.getId());
+        output.setOriginalWord(gameState.getOriginal());
+        output.setScrambleWord(gameState.getScramble());
+        output.setGuessWord(input.getWord());
+        output.setTotalWords(gameState.getTotalCount());
+        output.setRemainingWords(gameState.getRemainingCount());
+        output.setGuessedWords(gameState.getGuessedWords());
 
         return new ResponseEntity<>(output, HttpStatus.OK);
     }
@@ -118,10 +118,10 @@ public class GameWebController {
         }
 
         // Check if all sub-words have been guessed and add appropriate message
-        if (board.getState().getGuessedWords().size() == board.getState().getSubWords().size()) {
+        if (board.getState().getRemainingCount() == 0) {
             model.addAttribute("message", "<p>Click <a href=\"/game/new\">here</a> to start game.</p>");
         } else {
-            model.addAttribute("remainingWords", "Remaining words: " + (board.getState().getSubWords().size() - board.getState().getGuessedWords().size()));
+            model.addAttribute("remainingWords", "Remaining words: " + board.getState().getRemainingCount());
         }
 
         /*
@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import asia.fourtitude.interviewq.jumble.core.JumbleEngine;
 import asia.fourtitude.interviewq.jumble.model.ExistsForm;
@@ -32,9 +33,15 @@ public class RootController {
 
     private final JumbleEngine jumbleEngine;
 
+    /*
+     * Runs the engine work of the async endpoints.
+     */
+    private final EngineExecutor engineExecutor;
+
     @Autowired(required = true)
-    public RootController(JumbleEngine jumbleEngine) {
+    public RootController(JumbleEngine jumbleEngine, EngineExecutor engineExecutor) {
         this.jumbleEngine = jumbleEngine;
+        this.engineExecutor = engineExecutor;
     }
 
     @GetMapping
@@ -187,9 +194,10 @@ public class RootController {
 	    }
          
          
-    	 char startChar = form.getStartChar() != null && !form.getStartChar().isEmpty() ? form.getStartChar().charAt(0) : '\0';
-         char endChar = form.getEndChar() != null && !form.getEndChar().isEmpty() ? form.getEndChar().charAt(0) : '\0';
-         Integer length =  form.getLength() != null && form.getLength() !=0 ?  form.getLength() : 1;;
+         // empty input means "any", and must not narrow the search
+         Character startChar = form.getStartChar() != null && !form.getStartChar().isEmpty() ? form.getStartChar().charAt(0) : null;
+         Character endChar = form.getEndChar() != null && !form.getEndChar().isEmpty() ? form.getEndChar().charAt(0) : null;
+         Integer length = form.getLength();
 
          Collection<String> words = jumbleEngine.searchWords(startChar, endChar, length);
          form.setWords(words);
@@ -215,24 +223,56 @@ public class RootController {
          * d) Must pass the corresponding unit tests
          */
     	
-    	 if (bindingResult.hasErrors()) {
-
-             if (bindingResult.hasFieldErrors("word")) {
-            	 form.setWord("Invalid word");
-             }
-             if (bindingResult.hasFieldErrors("minLength")) {
-                 model.addAttribute("minLength", "Invalid minLength");
-             }
+    	 if (invalidSubWords(form, bindingResult, model)) {
              return "subWords";
          }
 
-    	 
-    	 String word = form.getWord().trim();
-         Integer minLength = form.getMinLength() != null && form.getMinLength() > 0 ? form.getMinLength() : 3;
-
          // Call JumbleEngine#generateSubWords() with the validated input
-         Collection<String> words = jumbleEngine.generateSubWords(word, minLength);
-         form.setWords(words);
+         return subWords(form);
+    }
+
+    /**
+     * Same as {@link #doPostSubWords(SubWordsForm, BindingResult, Model)},
+     * but the sub words are generated on the bounded engine pool, not on
+     * the request thread. When that pool is saturated, or the sub words
+     * are not generated within `jumble.async.engine-timeout`, the page
+     * shows a "busy" message instead.
+     */
+    @PostMapping("subWords/async")
+    public DeferredResult<String> doPostSubWordsAsync(
+            @Valid @ModelAttribute(name = "form") SubWordsForm form,
+            BindingResult bindingResult, Model model) {
+        if (invalidSubWords(form, bindingResult, model)) {
+            DeferredResult<String> result = new DeferredResult<>();
+            result.setResult("subWords");
+            return result;
+        }
+        return this.engineExecutor.submit(
+                () -> subWords(form),
+                () -> {
+                    model.addAttribute("busy", "Too busy to find the sub words now, try again later.");
+                    return "subWords";
+                });
+    }
+
+    private static boolean invalidSubWords(SubWordsForm form, BindingResult bindingResult, Model model) {
+        if (! bindingResult.hasErrors()) {
+            return false;
+        }
+        if (bindingResult.hasFieldErrors("word")) {
+            form.setWord("Invalid word");
+        }
+        if (bindingResult.hasFieldErrors("minLength")) {
+            model.addAttribute("minLength", "Invalid minLength");
+        }
+        return true;
+    }
+
+    private String subWords(SubWordsForm form) {
+        String word = form.getWord().trim();
+        Integer minLength = form.getMinLength() != null && form.getMinLength() > 0 ? form.getMinLength() : 3;
+        Collection<String> words = this.jumbleEngine.generateSubWords(word, minLength);
+        form.setWords(words);
         return "subWords";
     }
 
@@ -1,25 +1,46 @@
 package asia.fourtitude.interviewq.jumble.controller;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import asia.fourtitude.interviewq.jumble.core.JumbleEngine;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -31,11 +52,30 @@ public class WordApiController {
 
     private static final Logger LOG = LoggerFactory.getLogger(WordApiController.class);
 
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final JumbleEngine jumbleEngine;
 
+    /*
+     * Reads JSON strings one at a time, from an array or NDJSON (one per
+     * line), with the application's mapper, so the same JSON as the other
+     * endpoints.
+     */
+    private final ObjectReader wordReader;
+
+    /*
+     * The maximum number of words per `/exists` request.
+     */
+    private final int existsBatchMax;
+
     @Autowired(required = true)
-    public WordApiController(JumbleEngine jumbleEngine) {
+    public WordApiController(
+            JumbleEngine jumbleEngine,
+            @Value("${jumble.api.exists-batch-max:100000}") int existsBatchMax,
+            ObjectMapper objectMapper) {
         this.jumbleEngine = jumbleEngine;
+        this.existsBatchMax = existsBatchMax;
+        this.wordReader = objectMapper.readerFor(String.class);
     }
 
     @Operation(
@@ -76,4 +116,142 @@ public class WordApiController {
         return new ResponseEntity<>(words, HttpStatus.OK);
     }
 
+    @Operation(
+            summary = "List of palindrome words",
+            description = "Returns all the palindrome words (of at least 2 letters) in the word list.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Success",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    examples = {
+                                            @ExampleObject(
+                                                    name = "Success",
+                                                    description = "The list of palindrome words.",
+                                                    value = "[\n" +
+                                                            "  \"aha\",\n" +
+                                                            "  \"bib\",\n" +
+                                                            "  \"bob\",\n" +
+                                                            "  \"boob\"\n" +
+                                                            "]") })) })
+    @GetMapping(value = "/list/palindromes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Resource> palindromes() {
+        /*
+         * The answer never changes, so the engine keeps it pre-serialized;
+         * this just wraps (no copy) the shared bytes.
+         */
+        byte[] json = this.jumbleEngine.retrievePalindromeWordsJson();
+        return new ResponseEntity<>(new ByteArrayResource(json), HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Checks if words exist",
+            description = "Checks a batch of words (up to `jumble.api.exists-batch-max`, default 100000) against the word list, case insensitive. "
+                    + "The body is either a JSON array of words, or NDJSON (`application/x-ndjson`, one JSON string per line) streamed by the client. "
+                    + "Returns one boolean per word, in the same order; or with `format=bitmap`, a bitmap (bit `i % 8` of byte `i / 8` set if word `i` exists).",
+            requestBody = @RequestBody(
+                    description = "The words.",
+                    required = true,
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(type = "string", example = "panda")))))
+    @ApiResponses(
+            value = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Success",
+                            content = {
+                                    @Content(
+                                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                            examples = {
+                                                    @ExampleObject(
+                                                            name = "Success",
+                                                            description = "For input `[\"panda\", \"fourtitude\", \"MaNGoS\"]`.",
+                                                            value = "[\n" +
+                                                                    "  true,\n" +
+                                                                    "  false,\n" +
+                                                                    "  true\n" +
+                                                                    "]") }),
+                                    @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE) }),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Bad Request, the body is not a list of words",
+                            content = @Content),
+                    @ApiResponse(
+                            responseCode = "413",
+                            description = "Payload Too Large, more words than allowed",
+                            content = @Content) })
+    @PostMapping(value = "/exists", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> exists(
+            InputStream body,
+            @Parameter(
+                    description = "`booleans` (default) for a JSON array, `bitmap` for bytes.",
+                    example = "booleans")
+            @RequestParam(name = "format", required = false) String format) {
+        List<String> words = new ArrayList<>();
+        try (JsonParser parser = this.wordReader.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expect a JSON array");
+            }
+            // word by word, so a body too large is not read past the limit
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new EOFException("Unexpected end of the JSON array");
+                }
+                if (words.size() == this.existsBatchMax) {
+                    throw tooManyWords();
+                }
+                words.add(this.wordReader.readValue(parser));
+            }
+        } catch (IOException e) {
+            LOG.debug("Invalid JSON words", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid JSON words, expect an array of strings", e);
+        }
+        return existsResponse(this.jumbleEngine.existsAll(words), format);
+    }
+
+    @Operation(hidden = true)
+    @PostMapping(value = "/exists", consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> existsNdjson(
+            InputStream body,
+            @RequestParam(name = "format", required = false) String format) {
+        List<String> words = new ArrayList<>();
+        try (MappingIterator<String> it = this.wordReader.readValues(body)) {
+            while (it.hasNextValue()) {
+                if (words.size() == this.existsBatchMax) {
+                    throw tooManyWords();
+                }
+                words.add(it.nextValue());
+            }
+        } catch (IOException e) {
+            LOG.debug("Invalid NDJSON words", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid NDJSON words, expect one JSON string per line", e);
+        }
+        return existsResponse(this.jumbleEngine.existsAll(words), format);
+    }
+
+    private ResponseStatusException tooManyWords() {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Too many words, expect at most existsBatchMax=[" + this.existsBatchMax + "]");
+    }
+
+    private static ResponseEntity<?> existsResponse(boolean[] exists, String format) {
+        if ("bitmap".equalsIgnoreCase(format)) {
+            byte[] bitmap = new byte[(exists.length + 7) / 8];
+            for (int i = 0; i < exists.length; i++) {
+                if (exists[i]) {
+                    bitmap[i >>> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .body(new ByteArrayResource(bitmap));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(exists);
+    }
+
 }
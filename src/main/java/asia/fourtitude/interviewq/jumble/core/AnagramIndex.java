@@ -0,0 +1,354 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+
+/**
+ * Index from letter signature (the letters of a word, sorted) to the
+ * words having exactly those letters, eg: "eilv" to "evil", "live", "veil", "vile".
+ *
+ * Finding the sub words of a word then only needs to visit each distinct
+ * sub multiset of its letters once (at most 2^n of them), instead of every
+ * ordered permutation of every subset (n! and more).
+ *
+ * Stored as an open addressing hash table (keyed by signature) of groups,
+ * each group being the indexes of the words sharing one signature.
+ *
+ * For long words the search can also run on a `ForkJoinPool`: the choices
+ * for the first letters split the sub multisets into disjoint parts, each
+ * searched by its own task, so no result is found twice.
+ */
+final class AnagramIndex {
+
+    private final WordStore words;
+
+    /*
+     * Slot to `group + 1`, 0 marks an empty slot.
+     */
+    private final IntBuffer table;
+
+    private final int mask;
+
+    /*
+     * Words of group `g` are `groupIds[groupStart[g]]` to `groupIds[groupStart[g + 1] - 1]`.
+     */
+    private final IntBuffer groupStart;
+
+    private final IntBuffer groupIds;
+
+    /**
+     * @param words     The word list the index was built from.
+     * @param sections  The arrays produced by {@link #build(List)}, in order.
+     */
+    AnagramIndex(WordStore words, IntBuffer[] sections) {
+        this.words = words;
+        this.table = sections[0];
+        this.mask = table.limit() - 1;
+        this.groupStart = sections[1];
+        this.groupIds = sections[2];
+    }
+
+    /**
+     * Counts the letters of `word`, case insensitive.
+     *
+     * @param word  The word.
+     * @return  The count of each letter 'a' to 'z', or null if `word` has
+     *          anything other than letters 'a' to 'z'.
+     */
+    static int[] letterCounts(CharSequence word) {
+        int[] counts = new int[26];
+        for (int i = 0; i < word.length(); i++) {
+            char ch = word.charAt(i);
+            if (ch >= 'A' && ch <= 'Z') {
+                ch = (char) (ch + ('a' - 'A'));
+            }
+            if (ch < 'a' || ch > 'z') {
+                return null;
+            }
+            counts[ch - 'a'] += 1;
+        }
+        return counts;
+    }
+
+    /**
+     * @param word  The word.
+     * @return  The letters of `word` sorted, lower case.
+     *          Or null if `word` has anything other than letters 'a' to 'z'.
+     */
+    static String signature(CharSequence word) {
+        int[] counts = letterCounts(word);
+        if (counts == null) {
+            return null;
+        }
+        char[] letters = new char[word.length()];
+        int pos = 0;
+        for (int letter = 0; letter < 26; letter++) {
+            for (int n = 0; n < counts[letter]; n++) {
+                letters[pos++] = (char) ('a' + letter);
+            }
+        }
+        return new String(letters);
+    }
+
+    /**
+     * Visits every distinct sub multiset of letters `counts`, having at
+     * least `minLength` letters, and collects the words of that signature.
+     *
+     * @param counts     The letters available, see {@link #letterCounts(CharSequence)}.
+     * @param minLength  The minimum length (inclusive) of the words.
+     * @param sink       Receives the index of each matching word.
+     */
+    void collectSubWords(int[] counts, int minLength, IntConsumer sink) {
+        new Search(counts, minLength, sink, new int[26]).collect(0, 0, 0);
+    }
+
+    /**
+     * Same as {@link #collectSubWords(int[], int, IntConsumer)}, in parallel.
+     *
+     * @param counts     The letters available, see {@link #letterCounts(CharSequence)}.
+     * @param minLength  The minimum length (inclusive) of the words.
+     * @param pool       The pool to run on.
+     * @param threshold  The number of sub multisets below which a part is
+     *                   searched sequentially, rather than split further.
+     * @return  The indexes of matching words, in no particular order.
+     */
+    int[] collectSubWords(int[] counts, int minLength, ForkJoinPool pool, long threshold) {
+        return pool.invoke(new SubWordTask(counts, minLength, threshold, 0, 0, 0, new int[26]));
+    }
+
+    /**
+     * @param counts  The letters available, see {@link #letterCounts(CharSequence)}.
+     * @return  The number of distinct sub multisets of `counts`, ie: the
+     *          size of the search space.
+     */
+    static long subMultisets(int[] counts) {
+        long space = 1;
+        for (int count : counts) {
+            space *= count + 1;
+        }
+        return space;
+    }
+
+    /**
+     * Collects word indexes into an array.
+     */
+    static final class Ids implements IntConsumer {
+
+        private int[] ids = new int[16];
+
+        private int size;
+
+        @Override
+        public void accept(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+    }
+
+    /*
+     * Searches the sub multisets having `taken` for the letters before
+     * `letter`: either directly, or by splitting on the choices for the
+     * next letter.
+     */
+    private final class SubWordTask extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] counts;
+
+        private final int minLength;
+
+        private final long threshold;
+
+        private final int letter;
+
+        private final int length;
+
+        private final int hash;
+
+        private final int[] taken;
+
+        SubWordTask(int[] counts, int minLength, long threshold, int letter, int length, int hash, int[] taken) {
+            this.counts = counts;
+            this.minLength = minLength;
+            this.threshold = threshold;
+            this.letter = letter;
+            this.length = length;
+            this.hash = hash;
+            this.taken = taken;
+        }
+
+        @Override
+        protected int[] compute() {
+            long space = 1;
+            int remaining = 0;
+            for (int i = letter; i < 26; i++) {
+                space *= counts[i] + 1;
+                remaining += counts[i];
+            }
+            if (length + remaining < minLength) {
+                return new int[0];
+            }
+            if (space <= threshold) {
+                Ids ids = new Ids();
+                new Search(counts, minLength, ids, taken).collect(letter, length, hash);
+                return ids.toArray();
+            }
+            // more than one sub multiset left, so there is a letter to split on
+            int next = letter;
+            while (counts[next] == 0) {
+                next++;
+            }
+            List<SubWordTask> parts = new ArrayList<>(counts[next] + 1);
+            char ch = (char) ('a' + next);
+            int h = hash;
+            for (int take = 0; take <= counts[next]; take++) {
+                int[] partTaken = taken.clone();
+                partTaken[next] = take;
+                parts.add(new SubWordTask(counts, minLength, threshold, next + 1, length + take, h, partTaken));
+                h = 31 * h + ch;
+            }
+            int total = 0;
+            for (SubWordTask part : invokeAll(parts)) {
+                total += part.getRawResult().length;
+            }
+            int[] result = new int[total];
+            int pos = 0;
+            for (SubWordTask part : parts) {
+                int[] ids = part.getRawResult();
+                System.arraycopy(ids, 0, result, pos, ids.length);
+                pos += ids.length;
+            }
+            return result;
+        }
+
+    }
+
+    /*
+     * State of one sub word search. The chosen letters are kept both as
+     * counts (to verify a candidate group) and as running hash of the
+     * sorted signature, so a lookup allocates nothing.
+     */
+    private final class Search {
+
+        private final int[] counts;
+
+        private final int[] taken;
+
+        private final int[] scratch = new int[26];
+
+        private final int minLength;
+
+        private final IntConsumer sink;
+
+        Search(int[] counts, int minLength, IntConsumer sink, int[] taken) {
+            this.counts = counts;
+            this.minLength = minLength;
+            this.sink = sink;
+            this.taken = taken;
+        }
+
+        void collect(int letter, int length, int hash) {
+            if (letter == 26) {
+                if (length >= minLength && length > 0) {
+                    lookup(length, hash);
+                }
+                return;
+            }
+            int remaining = 0;
+            for (int i = letter; i < 26; i++) {
+                remaining += counts[i];
+            }
+            if (length + remaining < minLength) {
+                // even taking every remaining letter is too short
+                return;
+            }
+            char ch = (char) ('a' + letter);
+            for (int take = 0; take <= counts[letter]; take++) {
+                taken[letter] = take;
+                collect(letter + 1, length + take, hash);
+                hash = 31 * hash + ch;
+            }
+            taken[letter] = 0;
+        }
+
+        private void lookup(int length, int hash) {
+            for (int slot = Dictionary.spread(hash) & mask; table.get(slot) != 0; slot = (slot + 1) & mask) {
+                int group = table.get(slot) - 1;
+                int from = groupStart.get(group);
+                if (hasLetters(groupIds.get(from), length)) {
+                    for (int i = from, end = groupStart.get(group + 1); i < end; i++) {
+                        sink.accept(groupIds.get(i));
+                    }
+                    return;
+                }
+            }
+        }
+
+        private boolean hasLetters(int word, int length) {
+            if (words.length(word) != length) {
+                return false;
+            }
+            System.arraycopy(taken, 0, scratch, 0, 26);
+            for (int i = 0; i < length; i++) {
+                int letter = words.charAt(word, i) - 'a';
+                if (letter < 0 || letter >= 26 || --scratch[letter] < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * Builds the index for `words`.
+     *
+     * @param words  Lower case words.
+     * @return  The arrays: hash table, group start, group word indexes.
+     */
+    static int[][] build(List<String> words) {
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < words.size(); i++) {
+            String signature = signature(words.get(i));
+            if (signature != null) {
+                groups.computeIfAbsent(signature, key -> new ArrayList<>()).add(i);
+            }
+        }
+        int capacity = Integer.highestOneBit(Math.max(16, groups.size() * 2 - 1)) << 1;
+        int[] table = new int[capacity];
+        int[] groupStart = new int[groups.size() + 1];
+        int[] groupIds = new int[words.size()];
+        int group = 0;
+        int pos = 0;
+        for (Map.Entry<String, List<Integer>> entry : groups.entrySet()) {
+            int slot = Dictionary.spread(entry.getKey().hashCode()) & (capacity - 1);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            table[slot] = group + 1;
+            groupStart[group] = pos;
+            for (int id : entry.getValue()) {
+                groupIds[pos++] = id;
+            }
+            group++;
+        }
+        groupStart[group] = pos;
+        return new int[][] { table, groupStart, Arrays.copyOf(groupIds, pos) };
+    }
+
+}
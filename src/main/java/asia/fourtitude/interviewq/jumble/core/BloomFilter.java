@@ -0,0 +1,170 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.util.List;
+
+/**
+ * Bloom filter over the words of a {@link Dictionary}: answers "definitely
+ * not a word" from a few bit probes, so that lookups of non words (most
+ * lookups, eg: player guesses) never reach the hash table and word bytes.
+ *
+ * Cache line blocked: the k bits of a word all fall in one block of 512
+ * bits (8 longs, one cache line), so a lookup costs one memory access,
+ * whatever k. The block is picked by the low half of the word hash, and the
+ * bits within it by 9 bit slices of the remixed hash.
+ *
+ * Matching is case insensitive (ASCII letters), same as the dictionary.
+ * Immutable once built, and safe to share between threads.
+ */
+final class BloomFilter {
+
+    private static final int BLOCK_LONGS = 8;
+
+    private static final int BLOCK_BITS = BLOCK_LONGS * 64;
+
+    private final long[] bits;
+
+    private final int blocks;
+
+    private final int hashCount;
+
+    private final double expectedFpp;
+
+    private BloomFilter(long[] bits, int hashCount, double expectedFpp) {
+        this.bits = bits;
+        this.blocks = bits.length / BLOCK_LONGS;
+        this.hashCount = hashCount;
+        this.expectedFpp = expectedFpp;
+    }
+
+    /**
+     * Builds the filter for `words`.
+     *
+     * @param words    The words, lower case.
+     * @param fpp      The target false positive probability, in (0, 1).
+     *                 Used to size the filter when `bitSize` is 0.
+     * @param bitSize  The size of the filter in bits (rounded up to whole
+     *                 blocks), or 0 to derive it from `fpp` and the number
+     *                 of words.
+     * @return  The filter.
+     */
+    static BloomFilter build(List<String> words, double fpp, long bitSize) {
+        if (! (fpp > 0 && fpp < 1)) {
+            throw new IllegalArgumentException("Invalid fpp=[" + fpp + "], expect between 0 and 1");
+        }
+        if (bitSize < 0) {
+            throw new IllegalArgumentException("Invalid bitSize=[" + bitSize + "], expect 0 or positive");
+        }
+        int n = Math.max(1, words.size());
+        long m = bitSize > 0 ? bitSize : (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        long blocks = Math.max(1, (m + BLOCK_BITS - 1) / BLOCK_BITS);
+        if (blocks > Integer.MAX_VALUE / BLOCK_LONGS) {
+            throw new IllegalArgumentException("Invalid bitSize=[" + m + "], too large");
+        }
+        m = blocks * BLOCK_BITS;
+        // at most 7 probes of 9 bits fit one 64 bit hash
+        int k = (int) Math.max(1, Math.min(7, Math.round((double) m / n * Math.log(2))));
+        long[] bits = new long[(int) blocks * BLOCK_LONGS];
+        BloomFilter filter = new BloomFilter(bits, k, 0);
+        for (String word : words) {
+            long hash = hash64(word);
+            int base = filter.block(hash);
+            long h = hash * 0x9e3779b97f4a7c15L;
+            for (int i = 0; i < k; i++, h <<= 9) {
+                int bit = (int) (h >>> 55);
+                bits[base + (bit >>> 6)] |= 1L << bit;
+            }
+        }
+        return new BloomFilter(bits, k, expectedFpp(words.size(), (int) blocks, k));
+    }
+
+    /**
+     * @param word  The word, any case.
+     * @return  false if `word` is definitely not in the dictionary,
+     *          true if it might be.
+     */
+    boolean mightContain(CharSequence word) {
+        long hash = hash64(word);
+        if (hash == NOT_ASCII) {
+            // can not be folded here, left to the dictionary
+            return true;
+        }
+        int base = block(hash);
+        long h = hash * 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < hashCount; i++, h <<= 9) {
+            int bit = (int) (h >>> 55);
+            if ((bits[base + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitSize() {
+        return (long) bits.length * 64;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * @return  The false positive probability expected from the size of
+     *          the filter and the number of words.
+     */
+    double expectedFpp() {
+        return expectedFpp;
+    }
+
+    /*
+     * Index of the first long of the block of `hash`, mapping the low 32
+     * bits onto [0, blocks) by multiply and shift (no division).
+     */
+    private int block(long hash) {
+        return (int) (((hash & 0xffffffffL) * blocks) >>> 32) * BLOCK_LONGS;
+    }
+
+    /*
+     * False positive rate of a blocked filter: the words are spread over
+     * the blocks (Poisson), and each block is a small standard filter.
+     */
+    private static double expectedFpp(int n, int blocks, int k) {
+        double mean = (double) n / blocks;
+        double fpp = 0;
+        double p = Math.exp(-mean);
+        for (int load = 0; load < mean * 4 + 32; load++) {
+            fpp += p * Math.pow(1 - Math.exp(-(double) k * load / BLOCK_BITS), k);
+            p *= mean / (load + 1);
+        }
+        return fpp;
+    }
+
+    /*
+     * Returned by `hash64()` for input having non ASCII characters.
+     */
+    private static final long NOT_ASCII = 0;
+
+    /*
+     * 64 bit hash (FNV-1a, then a murmur3 finalizer) of the ASCII case
+     * folded `word`.
+     */
+    private static long hash64(CharSequence word) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, n = word.length(); i < n; i++) {
+            char ch = word.charAt(i);
+            if (ch >= 0x80) {
+                return NOT_ASCII;
+            }
+            if (ch >= 'A' && ch <= 'Z') {
+                ch = (char) (ch + ('a' - 'A'));
+            }
+            h = (h ^ ch) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == NOT_ASCII ? 1 : h;
+    }
+
+}
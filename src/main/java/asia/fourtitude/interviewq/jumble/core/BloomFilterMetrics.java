@@ -0,0 +1,103 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the Bloom filter in front of {@link JumbleEngine#exists(String)},
+ * to tune its size / false positive rate in production.
+ *
+ * - rejected: lookups answered by the filter alone (definitely not a word).
+ * - passed: lookups the filter let through to the dictionary.
+ * - falsePositives: passed lookups which turned out not to be words.
+ *
+ * Thread safe, and cheap to update from many threads.
+ */
+public final class BloomFilterMetrics {
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder passed = new LongAdder();
+
+    private final LongAdder falsePositives = new LongAdder();
+
+    private volatile long bitSize;
+
+    private volatile int hashCount;
+
+    private volatile double expectedFpp;
+
+    void filterBuilt(BloomFilter filter) {
+        this.bitSize = filter.bitSize();
+        this.hashCount = filter.hashCount();
+        this.expectedFpp = filter.expectedFpp();
+    }
+
+    void rejected() {
+        rejected.increment();
+    }
+
+    void passed(boolean found) {
+        passed.increment();
+        if (! found) {
+            falsePositives.increment();
+        }
+    }
+
+    /*
+     * Counts a whole batch of lookups at once.
+     */
+    void batch(long rejected, long passed, long falsePositives) {
+        this.rejected.add(rejected);
+        this.passed.add(passed);
+        this.falsePositives.add(falsePositives);
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getPassed() {
+        return passed.sum();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * @return  The ratio of false positives over the non words looked up,
+     *          or 0 if none yet.
+     */
+    public double getObservedFpp() {
+        long falsePositives = getFalsePositives();
+        long negatives = getRejected() + falsePositives;
+        return negatives == 0 ? 0 : (double) falsePositives / negatives;
+    }
+
+    /**
+     * @return  The false positive probability expected from the filter size.
+     */
+    public double getExpectedFpp() {
+        return expectedFpp;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sb.length() == 0 ? "" : ", ").append("rejected=[").append(getRejected()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("passed=[").append(getPassed()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("falsePositives=[").append(getFalsePositives()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("bitSize=[").append(bitSize).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("hashCount=[").append(hashCount).append(']');
+        return sb.toString();
+    }
+
+}
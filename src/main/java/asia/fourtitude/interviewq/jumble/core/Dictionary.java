@@ -0,0 +1,587 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+
+/**
+ * Immutable model of the word list.
+ *
+ * Built once (normally at application startup) and then shared by all the
+ * threads calling into {@link JumbleEngine}. Nothing is mutated after
+ * construction, so no locking is needed to read from it.
+ *
+ * The words and all their indexes are read, in place, from the binary
+ * format produced by {@link DictionaryCompiler}. At build time it is
+ * compiled into "words.bin", which is memory mapped (so startup parses no
+ * text, and the pages are shared through the OS page cache). Without it,
+ * "words.txt" is compiled in memory at startup, into a direct buffer.
+ *
+ * Either way the word data is off heap: the words are kept packed (see
+ * {@link WordStore}), and Strings are only created for the words returned.
+ */
+final class Dictionary {
+
+    static final String TEXT_RESOURCE = "/words.txt";
+
+    static final String COMPILED_RESOURCE = "/words.bin";
+
+    /*
+     * All the words, lower case, sorted and without duplicates.
+     */
+    private final WordStore store;
+
+    private final List<String> words;
+
+    /*
+     * Open addressing (linear probing) hash table of `index + 1` into
+     * `words`, 0 marks an empty slot. Keyed by the case folded word, so
+     * lookup needs neither lower casing nor a temporary String.
+     */
+    private final IntBuffer table;
+
+    private final int mask;
+
+    private final PrefixTrie prefixes;
+
+    /*
+     * Word indexes grouped by length: the words of length `len` are
+     * `byLength[lengthStart[len]]` to `byLength[lengthStart[len + 1] - 1]`.
+     */
+    private final IntBuffer lengthStart;
+
+    private final IntBuffer byLength;
+
+    private final SearchIndex search;
+
+    private final AnagramIndex anagrams;
+
+    /*
+     * The palindrome words, and the same list pre-serialized as JSON array.
+     * Never changes for a loaded word list, so decoded once (unlike the
+     * views over `store`, which decode on every read) and served as is.
+     */
+    private final List<String> palindromes;
+
+    private final byte[] palindromesJson;
+
+    /**
+     * Reads the compiled word list, see {@link DictionaryCompiler}.
+     * The buffer is used in place (not copied), and must not be modified.
+     *
+     * @param image  The compiled word list.
+     */
+    Dictionary(ByteBuffer image) {
+        ByteBuffer in = image.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < 12 || in.getInt() != DictionaryCompiler.MAGIC) {
+            throw new IllegalStateException("Invalid compiled word list, bad magic");
+        }
+        int version = in.getInt();
+        if (version != DictionaryCompiler.VERSION) {
+            throw new IllegalStateException("Unsupported compiled word list version=[" + version + "]");
+        }
+        int count = in.getInt();
+
+        this.store = new WordStore(ints(in), bytes(in));
+        if (store.size() != count) {
+            throw new IllegalStateException("Invalid compiled word list, count=[" + count + "]");
+        }
+        this.words = store.asList();
+
+        this.table = ints(in);
+        this.mask = table.limit() - 1;
+        this.prefixes = new PrefixTrie(ints(in, 5));
+        this.lengthStart = ints(in);
+        this.byLength = ints(in);
+        this.search = new SearchIndex(ints(in, 2));
+        this.anagrams = new AnagramIndex(this.store, ints(in, 3));
+        this.palindromes = Collections.unmodifiableList(Arrays.asList(new WordList(ints(in)).toArray(new String[0])));
+        this.palindromesJson = toJsonArray(this.palindromes);
+    }
+
+    /**
+     * Loads the word list from classpath: the compiled "words.bin" if
+     * available, else compiles "words.txt" in memory.
+     *
+     * @return  The dictionary.
+     */
+    static Dictionary fromClasspath() {
+        try {
+            URL compiled = Dictionary.class.getResource(COMPILED_RESOURCE);
+            if (compiled != null) {
+                return map(compiledFile(compiled));
+            }
+            try (InputStream is = Dictionary.class.getResourceAsStream(TEXT_RESOURCE)) {
+                if (is == null) {
+                    throw new IllegalStateException("Cannot find word list=[" + TEXT_RESOURCE + "] in classpath");
+                }
+                return load(is, true);
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Cannot load word list from classpath", e);
+        }
+    }
+
+    /**
+     * Loads the word list from file `path`: memory mapped if compiled (see
+     * {@link DictionaryCompiler}), else read as text and compiled in memory.
+     *
+     * A compiled file must be replaced (eg: renamed over), not rewritten in
+     * place, while it is mapped.
+     *
+     * @param path  The word list file.
+     * @return  The dictionary.
+     */
+    static Dictionary fromPath(Path path) throws IOException {
+        if (isCompiled(path)) {
+            return map(path);
+        }
+        try (InputStream is = Files.newInputStream(path)) {
+            return load(is, true);
+        }
+    }
+
+    private static boolean isCompiled(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (head.hasRemaining() && channel.read(head) > 0) {
+                // reads the magic
+            }
+            return ! head.hasRemaining() && head.getInt(0) == DictionaryCompiler.MAGIC;
+        }
+    }
+
+    /**
+     * Reads the word list (one word per line) from `is`, and compiles it
+     * in memory. Blank lines are skipped, and words are folded to lower case.
+     *
+     * @param is       The input stream, not closed by this method.
+     * @param offHeap  true to keep the compiled word list in a direct
+     *                 buffer, false to keep it on the heap.
+     * @return  The dictionary.
+     */
+    static Dictionary load(InputStream is, boolean offHeap) throws IOException {
+        ByteBuffer compiled = DictionaryCompiler.compile(DictionaryCompiler.readWords(is));
+        if (offHeap) {
+            ByteBuffer direct = ByteBuffer.allocateDirect(compiled.remaining());
+            direct.put(compiled).flip();
+            compiled = direct;
+        }
+        return new Dictionary(compiled);
+    }
+
+    /**
+     * Memory maps the compiled word list at `path`.
+     *
+     * @param path  The compiled word list, see {@link DictionaryCompiler}.
+     * @return  The dictionary.
+     */
+    static Dictionary map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new Dictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /*
+     * A resource inside a jar can not be mapped, so it is copied out to the
+     * temp directory first, named after its content. All the JVMs on the
+     * host with the same word list then map the same file (and pages).
+     */
+    private static Path compiledFile(URL url) throws IOException, URISyntaxException {
+        if ("file".equals(url.getProtocol())) {
+            return Paths.get(url.toURI());
+        }
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"));
+        Path temp = Files.createTempFile(dir, "jumble-words-", ".tmp");
+        CRC32 crc = new CRC32();
+        long size = 0;
+        try (InputStream is = url.openStream(); OutputStream os = Files.newOutputStream(temp)) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = is.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+                os.write(buffer, 0, n);
+                size += n;
+            }
+        }
+        Path target = dir.resolve(String.format("jumble-words-%08x-%d.bin", crc.getValue(), size));
+        if (Files.exists(target) && Files.size(target) == size) {
+            Files.delete(temp);
+        } else {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target;
+    }
+
+    private static IntBuffer ints(ByteBuffer in) {
+        int count = in.getInt();
+        ByteBuffer slice = in.slice().order(in.order());
+        slice.limit(count * 4);
+        in.position(in.position() + count * 4);
+        return slice.asIntBuffer();
+    }
+
+    private static IntBuffer[] ints(ByteBuffer in, int sections) {
+        IntBuffer[] result = new IntBuffer[sections];
+        for (int i = 0; i < sections; i++) {
+            result[i] = ints(in);
+        }
+        return result;
+    }
+
+    private static ByteBuffer bytes(ByteBuffer in) {
+        int count = in.getInt();
+        ByteBuffer slice = in.slice();
+        slice.limit(count);
+        in.position(in.position() + DictionaryCompiler.padded(count));
+        return slice;
+    }
+
+    /**
+     * @return  All the words (sorted), as an unmodifiable list.
+     */
+    List<String> words() {
+        return words;
+    }
+
+    int size() {
+        return words.size();
+    }
+
+    int maxLength() {
+        return lengthStart.limit() - 2;
+    }
+
+    /**
+     * @param length  The word length.
+     * @return  The number of words of `length`.
+     */
+    int countOfLength(int length) {
+        if (length < 0 || length > maxLength()) {
+            return 0;
+        }
+        return lengthStart.get(length + 1) - lengthStart.get(length);
+    }
+
+    /**
+     * @param length  The word length.
+     * @param nth     Which word, from 0 to `countOfLength(length) - 1`.
+     * @return  The `nth` word (in sorted order) of `length`.
+     */
+    String wordOfLength(int length, int nth) {
+        return store.get(byLength.get(lengthStart.get(length) + nth));
+    }
+
+    /**
+     * Finds the position of `word` in {@link #words()}.
+     * Matching is case insensitive.
+     *
+     * @param word  The word to look up, may be null.
+     * @return  The index of the word, or -1 if not found.
+     */
+    int indexOf(CharSequence word) {
+        if (word == null || word.length() == 0) {
+            return -1;
+        }
+        int hash = hash(word);
+        if (hash == NOT_ASCII) {
+            String lower = word.toString().toLowerCase(Locale.ROOT);
+            return probe(spread(lower.hashCode()), lower);
+        }
+        return probe(hash, word);
+    }
+
+    private int probe(int hash, CharSequence word) {
+        for (int slot = hash & mask; table.get(slot) != 0; slot = (slot + 1) & mask) {
+            int index = table.get(slot) - 1;
+            if (store.equalsFolded(index, word)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    boolean contains(CharSequence word) {
+        return indexOf(word) >= 0;
+    }
+
+    /**
+     * Finds the words beginning with `prefix`, case insensitive.
+     *
+     * @param prefix  The prefix, not empty.
+     * @return  The matching words (sorted), as an unmodifiable view.
+     */
+    List<String> wordsWithPrefix(CharSequence prefix) {
+        int[] range = prefixes.find(prefix);
+        if (range == null) {
+            return Collections.emptyList();
+        }
+        return words.subList(range[0], range[1]);
+    }
+
+    /**
+     * @return  The palindrome words (sorted), as an unmodifiable list.
+     *          Shared, decoded once.
+     */
+    List<String> palindromes() {
+        return palindromes;
+    }
+
+    /**
+     * @return  The palindrome words, as UTF-8 encoded JSON array.
+     *          Shared, must not be modified.
+     */
+    byte[] palindromesJson() {
+        return palindromesJson;
+    }
+
+    /**
+     * Finds the words by first letter, last letter and length.
+     *
+     * @param first   The first letter 0 ('a') to 25 ('z'), or -1 for any.
+     * @param last    The last letter 0 ('a') to 25 ('z'), or -1 for any.
+     * @param length  The word length, or 0 for any.
+     * @return  The matching words (sorted), as an unmodifiable list.
+     */
+    List<String> search(int first, int last, int length) {
+        return new WordList(IntBuffer.wrap(search.search(first, last, length)));
+    }
+
+    /**
+     * Finds the words which can be made from the letters of `word`
+     * (each letter used at most as many times as it appears in `word`).
+     * `word` itself is excluded, but its other anagrams are not.
+     *
+     * @param word       The base word, letters 'a' to 'z' only (any case).
+     * @param minLength  The minimum length (inclusive) of sub words.
+     * @return  The sub words, sorted. Empty if `word` has non letters.
+     */
+    List<String> subWords(CharSequence word, int minLength) {
+        int[] counts = AnagramIndex.letterCounts(word);
+        if (counts == null) {
+            return Collections.emptyList();
+        }
+        return words(subWordIds(counts, minLength), indexOf(word));
+    }
+
+    /**
+     * Same as {@link #subWords(CharSequence, int)}, by letters, and
+     * including every word of exactly those letters.
+     *
+     * @param counts     The letters, see {@link AnagramIndex#letterCounts(CharSequence)}.
+     * @param minLength  The minimum length (inclusive) of sub words.
+     * @return  The indexes of the sub words, ascending (so in sorted order).
+     */
+    int[] subWordIds(int[] counts, int minLength) {
+        return subWordIds(counts, minLength, null, 0);
+    }
+
+    /**
+     * Same as {@link #subWordIds(int[], int)}, searched in parallel on
+     * `pool` when the search space has more than `threshold` sub multisets.
+     *
+     * @param counts     The letters, see {@link AnagramIndex#letterCounts(CharSequence)}.
+     * @param minLength  The minimum length (inclusive) of sub words.
+     * @param pool       The pool to search on, or null for sequential.
+     * @param threshold  The search space size below which to stay sequential.
+     * @return  The indexes of the sub words, ascending (so in sorted order).
+     */
+    int[] subWordIds(int[] counts, int minLength, ForkJoinPool pool, long threshold) {
+        int[] ids;
+        if (pool != null && AnagramIndex.subMultisets(counts) > threshold) {
+            ids = anagrams.collectSubWords(counts, minLength, pool, threshold);
+        } else {
+            AnagramIndex.Ids found = new AnagramIndex.Ids();
+            anagrams.collectSubWords(counts, minLength, found);
+            ids = found.toArray();
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * @param ids      The word indexes.
+     * @param exclude  The index to leave out, or -1 for none.
+     * @return  The words of `ids`, in that order, as a new (modifiable) list.
+     */
+    List<String> words(int[] ids, int exclude) {
+        List<String> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            if (id != exclude) {
+                result.add(store.get(id));
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Read only list of words, by their indexes.
+     */
+    private final class WordList extends AbstractList<String> implements RandomAccess {
+
+        private final IntBuffer ids;
+
+        WordList(IntBuffer ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public String get(int index) {
+            return store.get(ids.get(index));
+        }
+
+        @Override
+        public int size() {
+            return ids.limit();
+        }
+
+    }
+
+    /**
+     * Builds the hash table for `words`, see `indexOf()`.
+     *
+     * @param words  Lower case words.
+     * @return  The hash table.
+     */
+    static int[] buildHashTable(List<String> words) {
+        int capacity = Integer.highestOneBit(Math.max(16, words.size() * 2 - 1)) << 1;
+        int[] table = new int[capacity];
+        for (int i = 0; i < words.size(); i++) {
+            int slot = spread(words.get(i).hashCode()) & (capacity - 1);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            table[slot] = i + 1;
+        }
+        return table;
+    }
+
+    /**
+     * Groups the indexes of `words` by length.
+     *
+     * @param words  The words.
+     * @return  The arrays: length start, word indexes.
+     */
+    static int[][] buildLengthIndex(List<String> words) {
+        int maxLength = 0;
+        for (String word : words) {
+            maxLength = Math.max(maxLength, word.length());
+        }
+        int[] lengthStart = new int[maxLength + 2];
+        for (String word : words) {
+            lengthStart[word.length() + 1] += 1;
+        }
+        for (int len = 1; len < lengthStart.length; len++) {
+            lengthStart[len] += lengthStart[len - 1];
+        }
+        int[] byLength = new int[words.size()];
+        int[] next = Arrays.copyOf(lengthStart, lengthStart.length);
+        for (int i = 0; i < words.size(); i++) {
+            byLength[next[words.get(i).length()]++] = i;
+        }
+        return new int[][] { lengthStart, byLength };
+    }
+
+    /**
+     * @param words  The words.
+     * @return  The indexes of the palindrome words (of 2 or more letters).
+     */
+    static int[] buildPalindromes(List<String> words) {
+        int[] ids = new int[words.size()];
+        int count = 0;
+        for (int i = 0; i < words.size(); i++) {
+            if (words.get(i).length() > 1 && isPalindrome(words.get(i))) {
+                ids[count++] = i;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private static boolean isPalindrome(String word) {
+        int left = 0;
+        int right = word.length() - 1;
+        while (left < right) {
+            if (word.charAt(left) != word.charAt(right)) {
+                return false;
+            }
+            left++;
+            right--;
+        }
+        return true;
+    }
+
+    private static byte[] toJsonArray(List<String> words) {
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+        for (String word : words) {
+            sb.append(sb.length() == 1 ? "" : ",").append('"');
+            for (int i = 0; i < word.length(); i++) {
+                char ch = word.charAt(i);
+                if (ch == '"' || ch == '\\') {
+                    sb.append('\\').append(ch);
+                } else if (ch < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) ch));
+                } else {
+                    sb.append(ch);
+                }
+            }
+            sb.append('"');
+        }
+        sb.append(']');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Returned by `hash()` for input having non ASCII letters, which can not
+     * be folded by `foldAscii()`. Such input takes the slow path, via
+     * String#toLowerCase. Never a valid hash, see `spread()`.
+     */
+    private static final int NOT_ASCII = 0x80000000;
+
+    /*
+     * Same as `spread(word.toLowerCase().hashCode())`, without creating
+     * the lower case String.
+     */
+    private static int hash(CharSequence word) {
+        int h = 0;
+        for (int i = 0, n = word.length(); i < n; i++) {
+            char ch = word.charAt(i);
+            if (ch >= 0x80) {
+                return NOT_ASCII;
+            }
+            h = 31 * h + foldAscii(ch);
+        }
+        return spread(h);
+    }
+
+    static int spread(int h) {
+        return (h ^ (h >>> 16)) & ~NOT_ASCII;
+    }
+
+    private static char foldAscii(char ch) {
+        return (ch >= 'A' && ch <= 'Z') ? (char) (ch + ('a' - 'A')) : ch;
+    }
+
+}
@@ -0,0 +1,158 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compiles the text word list (one word per line) into the binary format
+ * read by {@link Dictionary}: the words and all of their indexes, laid out
+ * so that they can be memory mapped and queried in place.
+ *
+ * Run by the Maven build (see "pom.xml"), to produce "words.bin" next to
+ * "words.txt" in the classpath:
+ *
+ *     DictionaryCompiler src/main/resources/words.txt target/classes/words.bin
+ *
+ * Format (little endian, the byte order of common hosts, so ints are read
+ * without swapping), after the header `MAGIC`, `VERSION`, word count:
+ * a sequence of sections, each an int length followed by that many ints
+ * (or bytes, padded to 4, for the word bytes). See {@link Dictionary}
+ * for the order of sections.
+ */
+public final class DictionaryCompiler {
+
+    static final int MAGIC = 0x4A4D424C; // "JMBL"
+
+    static final int VERSION = 1;
+
+    private DictionaryCompiler() {
+    }
+
+    /**
+     * Reads the word list (one word per line) from `is`.
+     * Blank lines are skipped, and words are folded to lower case.
+     * Words are stored as ASCII, see {@link WordStore}.
+     *
+     * @param is  The input stream, not closed by this method.
+     * @return  The words, sorted and without duplicates.
+     */
+    static List<String> readWords(InputStream is) throws IOException {
+        List<String> lines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) >= 0x80) {
+                    throw new IllegalArgumentException("Invalid word=[" + line + "], not ASCII");
+                }
+            }
+            lines.add(line.toLowerCase(Locale.ROOT));
+        }
+        String[] words = lines.toArray(new String[0]);
+        Arrays.sort(words);
+        int size = 0;
+        for (int i = 0; i < words.length; i++) {
+            if (size == 0 || ! words[i].equals(words[size - 1])) {
+                words[size++] = words[i];
+            }
+        }
+        return Arrays.asList(Arrays.copyOf(words, size));
+    }
+
+    /**
+     * Builds all the indexes of `words`, into the binary format.
+     *
+     * @param words  Lower case words, sorted and without duplicates.
+     * @return  The compiled word list, ready to be read by {@link Dictionary}.
+     */
+    static ByteBuffer compile(List<String> words) {
+        List<Object> sections = new ArrayList<>();
+
+        // words: offsets, then bytes
+        int[] offsets = new int[words.size() + 1];
+        byte[][] encoded = new byte[words.size()][];
+        for (int i = 0; i < words.size(); i++) {
+            encoded[i] = words.get(i).getBytes(StandardCharsets.US_ASCII);
+            offsets[i + 1] = offsets[i] + encoded[i].length;
+        }
+        byte[] bytes = new byte[offsets[words.size()]];
+        for (int i = 0; i < words.size(); i++) {
+            System.arraycopy(encoded[i], 0, bytes, offsets[i], encoded[i].length);
+        }
+        sections.add(offsets);
+        sections.add(bytes);
+
+        sections.add(Dictionary.buildHashTable(words));
+        sections.addAll(Arrays.asList(PrefixTrie.build(words)));
+        sections.addAll(Arrays.asList(Dictionary.buildLengthIndex(words)));
+        sections.addAll(Arrays.asList(SearchIndex.build(words)));
+        sections.addAll(Arrays.asList(AnagramIndex.build(words)));
+        sections.add(Dictionary.buildPalindromes(words));
+
+        int size = 3 * 4;
+        for (Object section : sections) {
+            size += 4 + (section instanceof int[] ? ((int[]) section).length * 4 : padded(((byte[]) section).length));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(words.size());
+        for (Object section : sections) {
+            if (section instanceof int[]) {
+                int[] ints = (int[]) section;
+                buffer.putInt(ints.length);
+                buffer.asIntBuffer().put(ints);
+                buffer.position(buffer.position() + ints.length * 4);
+            } else {
+                byte[] data = (byte[]) section;
+                buffer.putInt(data.length);
+                buffer.put(data);
+                buffer.position(buffer.position() + padded(data.length) - data.length);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    static int padded(int length) {
+        return (length + 3) & ~3;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: DictionaryCompiler <words.txt> <words.bin>");
+            System.exit(1);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        List<String> words;
+        try (InputStream is = Files.newInputStream(input)) {
+            words = readWords(is);
+        }
+        ByteBuffer compiled = compile(words);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (OutputStream os = Files.newOutputStream(output)) {
+            os.write(compiled.array(), 0, compiled.limit());
+        }
+        System.out.printf("Compiled %d words from [%s] into [%s] (%d bytes)%n",
+                words.size(), input, output, compiled.limit());
+    }
+
+}
@@ -0,0 +1,106 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the word list file, and calls back (on its own daemon thread)
+ * when it has changed, so the word list is rebuilt in the background.
+ *
+ * Editors and copy tools often write a file in several steps, so the
+ * callback waits for the file to be quiet for {@link #QUIET_MILLIS} first.
+ * A failing callback is logged, and watching goes on.
+ */
+final class DictionaryWatcher implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DictionaryWatcher.class);
+
+    static final long QUIET_MILLIS = 500;
+
+    private final Path file;
+
+    private final Runnable onChange;
+
+    private final WatchService watchService;
+
+    private final Thread thread;
+
+    /**
+     * Starts watching.
+     *
+     * @param file      The file to watch.
+     * @param onChange  Called after `file` was created or modified.
+     */
+    DictionaryWatcher(Path file, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        // watches the directory, so that a file renamed over `file` is seen too
+        this.file.getParent().register(this.watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "jumble-dictionary-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                if (! isChange(this.watchService.take())) {
+                    continue;
+                }
+                WatchKey key;
+                while ((key = this.watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    isChange(key);
+                }
+                LOG.info("Word list=[{}] changed, reloading", this.file);
+                try {
+                    long start = System.nanoTime();
+                    this.onChange.run();
+                    LOG.info("Word list=[{}] reloaded in {} ms", this.file,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                } catch (RuntimeException e) {
+                    LOG.warn("Cannot reload word list=[{}], keeping the previous one", this.file, e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private boolean isChange(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            } else if (this.file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            LOG.debug("Cannot close watch service", e);
+        }
+        this.thread.interrupt();
+    }
+
+}
@@ -0,0 +1,247 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+/**
+ * Tuning of {@link JumbleEngine}. Bound from the "jumble.engine.*"
+ * application properties (see "AppConfig"), defaults suit the bundled
+ * word list.
+ */
+public class EngineSettings {
+
+    /*
+     * External word list (text, or compiled by `DictionaryCompiler`),
+     * instead of the one in classpath.
+     */
+    private String dictionaryPath;
+
+    private boolean dictionaryWatch = true;
+
+    /*
+     * Bloom filter in front of word lookups, see `BloomFilter`.
+     */
+    private boolean bloomFilterEnabled = true;
+
+    private double bloomFilterFpp = 0.01;
+
+    private long bloomFilterBits = 0;
+
+    /*
+     * Sub word results by letters, see `SubWordCache`.
+     */
+    private boolean subWordCacheEnabled = true;
+
+    private long subWordCacheMaxWeight = 1_000_000;
+
+    /*
+     * Parallel sub word search of long words, see `AnagramIndex`.
+     */
+    private boolean subWordParallelEnabled = true;
+
+    private int subWordParallelism = 0;
+
+    private long subWordParallelThreshold = 4096;
+
+    /*
+     * Pool of ready made games, see `GamePool`.
+     */
+    private boolean gamePoolEnabled = true;
+
+    private String gamePoolKeys = "6:3";
+
+    private int gamePoolCapacity = 32;
+
+    private int gamePoolLowWater = 8;
+
+    private int gamePoolThreads = 1;
+
+    /**
+     * @return  The file of the word list, either text (one word per line)
+     *          or compiled (see `DictionaryCompiler`). Or null (default)
+     *          for the word list in classpath.
+     */
+    public String getDictionaryPath() {
+        return dictionaryPath;
+    }
+
+    public void setDictionaryPath(String dictionaryPath) {
+        this.dictionaryPath = dictionaryPath;
+    }
+
+    /**
+     * @return  true to reload the word list when its file changes.
+     *          Only applies with `dictionaryPath`.
+     */
+    public boolean isDictionaryWatch() {
+        return dictionaryWatch;
+    }
+
+    public void setDictionaryWatch(boolean dictionaryWatch) {
+        this.dictionaryWatch = dictionaryWatch;
+    }
+
+    public boolean isBloomFilterEnabled() {
+        return bloomFilterEnabled;
+    }
+
+    public void setBloomFilterEnabled(boolean bloomFilterEnabled) {
+        this.bloomFilterEnabled = bloomFilterEnabled;
+    }
+
+    /**
+     * @return  The target false positive probability of the Bloom filter,
+     *          used to size it when `bloomFilterBits` is 0.
+     */
+    public double getBloomFilterFpp() {
+        return bloomFilterFpp;
+    }
+
+    public void setBloomFilterFpp(double bloomFilterFpp) {
+        this.bloomFilterFpp = bloomFilterFpp;
+    }
+
+    /**
+     * @return  The size (in bits) of the Bloom filter,
+     *          or 0 to derive it from `bloomFilterFpp`.
+     */
+    public long getBloomFilterBits() {
+        return bloomFilterBits;
+    }
+
+    public void setBloomFilterBits(long bloomFilterBits) {
+        this.bloomFilterBits = bloomFilterBits;
+    }
+
+    public boolean isSubWordCacheEnabled() {
+        return subWordCacheEnabled;
+    }
+
+    public void setSubWordCacheEnabled(boolean subWordCacheEnabled) {
+        this.subWordCacheEnabled = subWordCacheEnabled;
+    }
+
+    /**
+     * @return  The maximum weight of the sub word cache: the number of
+     *          word indexes it holds (4 bytes each), plus a small fixed
+     *          cost per entry.
+     */
+    public long getSubWordCacheMaxWeight() {
+        return subWordCacheMaxWeight;
+    }
+
+    public void setSubWordCacheMaxWeight(long subWordCacheMaxWeight) {
+        this.subWordCacheMaxWeight = subWordCacheMaxWeight;
+    }
+
+    public boolean isSubWordParallelEnabled() {
+        return subWordParallelEnabled;
+    }
+
+    public void setSubWordParallelEnabled(boolean subWordParallelEnabled) {
+        this.subWordParallelEnabled = subWordParallelEnabled;
+    }
+
+    /**
+     * @return  The number of threads of the sub word search, or 0 (default)
+     *          to share the common `ForkJoinPool`. With 1 (or on a single
+     *          CPU), the search stays sequential.
+     */
+    public int getSubWordParallelism() {
+        return subWordParallelism;
+    }
+
+    public void setSubWordParallelism(int subWordParallelism) {
+        this.subWordParallelism = subWordParallelism;
+    }
+
+    /**
+     * @return  The size of search space (distinct sub sets of the letters,
+     *          eg: 4096 for 12 distinct letters) above which the sub word
+     *          search is split into parallel tasks, and below which each
+     *          task searches sequentially.
+     */
+    public long getSubWordParallelThreshold() {
+        return subWordParallelThreshold;
+    }
+
+    public void setSubWordParallelThreshold(long subWordParallelThreshold) {
+        this.subWordParallelThreshold = subWordParallelThreshold;
+    }
+
+    public boolean isGamePoolEnabled() {
+        return gamePoolEnabled;
+    }
+
+    public void setGamePoolEnabled(boolean gamePoolEnabled) {
+        this.gamePoolEnabled = gamePoolEnabled;
+    }
+
+    /**
+     * @return  The (length, minLength) pairs of the games to keep ready,
+     *          as comma separated "length:minLength", eg: "6:3,8:4".
+     */
+    public String getGamePoolKeys() {
+        return gamePoolKeys;
+    }
+
+    public void setGamePoolKeys(String gamePoolKeys) {
+        this.gamePoolKeys = gamePoolKeys;
+    }
+
+    /**
+     * @return  The maximum number of games kept ready, per pair.
+     */
+    public int getGamePoolCapacity() {
+        return gamePoolCapacity;
+    }
+
+    public void setGamePoolCapacity(int gamePoolCapacity) {
+        this.gamePoolCapacity = gamePoolCapacity;
+    }
+
+    /**
+     * @return  The number of games left (per pair) which triggers a refill.
+     */
+    public int getGamePoolLowWater() {
+        return gamePoolLowWater;
+    }
+
+    public void setGamePoolLowWater(int gamePoolLowWater) {
+        this.gamePoolLowWater = gamePoolLowWater;
+    }
+
+    /**
+     * @return  The number of background threads creating games.
+     */
+    public int getGamePoolThreads() {
+        return gamePoolThreads;
+    }
+
+    public void setGamePoolThreads(int gamePoolThreads) {
+        this.gamePoolThreads = gamePoolThreads;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (dictionaryPath != null) {
+            sb.append(sb.length() == 0 ? "" : ", ").append("dictionaryPath=[").append(dictionaryPath).append(']');
+        }
+        sb.append(sb.length() == 0 ? "" : ", ").append("dictionaryWatch=[").append(dictionaryWatch).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("bloomFilterEnabled=[").append(bloomFilterEnabled).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("bloomFilterFpp=[").append(bloomFilterFpp).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("bloomFilterBits=[").append(bloomFilterBits).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("subWordCacheEnabled=[").append(subWordCacheEnabled).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("subWordCacheMaxWeight=[").append(subWordCacheMaxWeight).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("subWordParallelEnabled=[").append(subWordParallelEnabled).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("subWordParallelism=[").append(subWordParallelism).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("subWordParallelThreshold=[").append(subWordParallelThreshold).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("gamePoolEnabled=[").append(gamePoolEnabled).append(']');
+        if (gamePoolKeys != null) {
+            sb.append(sb.length() == 0 ? "" : ", ").append("gamePoolKeys=[").append(gamePoolKeys).append(']');
+        }
+        sb.append(sb.length() == 0 ? "" : ", ").append("gamePoolCapacity=[").append(gamePoolCapacity).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("gamePoolLowWater=[").append(gamePoolLowWater).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("gamePoolThreads=[").append(gamePoolThreads).append(']');
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,195 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of ready made games, for each configured (length, minLength), so
+ * that creating a game is taking one from a queue instead of picking a
+ * word and finding all of its sub words on the request thread.
+ *
+ * Background producer threads fill each queue up to `capacity`, and are
+ * woken again whenever a queue drops to `lowWater`. Every game is handed
+ * out once, so callers own (and may mutate) what they take.
+ */
+final class GamePool implements Closeable {
+
+    /**
+     * Creates one game, see {@link JumbleEngine#createGameState(Integer, Integer)}.
+     */
+    interface Factory {
+
+        GameState create(int length, int minLength);
+
+    }
+
+    private final Factory factory;
+
+    private final int lowWater;
+
+    private final Map<Integer, Slot> slots;
+
+    private final ExecutorService producers;
+
+    private final GamePoolMetrics metrics;
+
+    private volatile boolean closed;
+
+    /*
+     * The games of one (length, minLength).
+     */
+    private static final class Slot {
+
+        final int length;
+
+        final int minLength;
+
+        final BlockingQueue<GameState> games;
+
+        final AtomicBoolean filling = new AtomicBoolean();
+
+        Slot(int length, int minLength, int capacity) {
+            this.length = length;
+            this.minLength = minLength;
+            this.games = new ArrayBlockingQueue<>(capacity);
+        }
+
+    }
+
+    /**
+     * Creates the pool, and starts filling it.
+     *
+     * @param factory   Creates the games, called from the producer threads.
+     * @param keys      The (length, minLength) pairs to pool, eg: `{{6, 3}}`.
+     * @param capacity  The maximum number of games kept per pair.
+     * @param lowWater  Refill once a pair has this many games or fewer left.
+     * @param threads   The number of producer threads.
+     * @param metrics   Receives the pool counters.
+     */
+    GamePool(Factory factory, int[][] keys, int capacity, int lowWater, int threads, GamePoolMetrics metrics) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity=[" + capacity + "], expect positive integer");
+        }
+        if (lowWater < 0 || lowWater >= capacity) {
+            throw new IllegalArgumentException("Invalid lowWater=[" + lowWater + "], expect 0 to capacity - 1");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid threads=[" + threads + "], expect positive integer");
+        }
+        this.factory = factory;
+        this.lowWater = lowWater;
+        Map<Integer, Slot> slots = new HashMap<>();
+        for (int[] key : keys) {
+            slots.put(key(key[0], key[1]), new Slot(key[0], key[1], capacity));
+        }
+        this.slots = Collections.unmodifiableMap(slots);
+        this.metrics = metrics;
+        this.metrics.poolCreated(this::available);
+        AtomicInteger count = new AtomicInteger();
+        this.producers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "jumble-game-pool-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        for (Slot slot : this.slots.values()) {
+            fill(slot);
+        }
+    }
+
+    private static Integer key(int length, int minLength) {
+        return (length << 16) | minLength;
+    }
+
+    /**
+     * Takes a ready made game.
+     *
+     * @param length     The length of the word to guess.
+     * @param minLength  The minimum length of the sub words.
+     * @return  The game, or null if that pair is not pooled, or none is ready.
+     */
+    GameState take(int length, int minLength) {
+        Slot slot = this.slots.get(key(length, minLength));
+        if (slot == null) {
+            return null;
+        }
+        GameState state = slot.games.poll();
+        if (state == null) {
+            this.metrics.miss();
+        } else {
+            this.metrics.hit();
+        }
+        if (slot.games.size() <= this.lowWater) {
+            fill(slot);
+        }
+        return state;
+    }
+
+    /**
+     * Drops all the ready made games (eg: after the word list changed),
+     * and fills the pool again.
+     */
+    void clear() {
+        for (Slot slot : this.slots.values()) {
+            slot.games.clear();
+            fill(slot);
+        }
+    }
+
+    int available() {
+        int available = 0;
+        for (Slot slot : this.slots.values()) {
+            available += slot.games.size();
+        }
+        return available;
+    }
+
+    /*
+     * Schedules a producer for `slot`, unless one is already on it.
+     */
+    private void fill(Slot slot) {
+        if (this.closed || ! slot.filling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.producers.execute(() -> produce(slot));
+        } catch (RejectedExecutionException e) {
+            slot.filling.set(false);
+        }
+    }
+
+    private void produce(Slot slot) {
+        try {
+            while (! this.closed && slot.games.remainingCapacity() > 0) {
+                slot.games.offer(this.factory.create(slot.length, slot.minLength));
+                this.metrics.produced();
+            }
+        } catch (RuntimeException e) {
+            // eg: no word of that length, callers fall back to create synchronously
+            this.metrics.failed();
+            slot.filling.set(false);
+            return;
+        }
+        slot.filling.set(false);
+        if (slot.games.size() <= this.lowWater) {
+            // taken below low water while this producer was finishing
+            fill(slot);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.producers.shutdownNow();
+    }
+
+}
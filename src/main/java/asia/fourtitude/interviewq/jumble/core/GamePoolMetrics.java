@@ -0,0 +1,91 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters of the pool of ready made games behind
+ * {@link JumbleEngine#createGameState(Integer, Integer)}.
+ *
+ * - hits: games taken from the pool.
+ * - misses: pooled (length, minLength) found empty, so the game was
+ *   created on the calling thread.
+ * - produced: games created by the background producers.
+ * - failed: producer runs which stopped on an error.
+ * - available: games ready in the pool right now.
+ *
+ * Thread safe, and cheap to update from many threads.
+ */
+public final class GamePoolMetrics {
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder produced = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private volatile IntSupplier available = () -> 0;
+
+    void poolCreated(IntSupplier available) {
+        this.available = available;
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    void produced() {
+        produced.increment();
+    }
+
+    void failed() {
+        failed.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getProduced() {
+        return produced.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public int getAvailable() {
+        return available.getAsInt();
+    }
+
+    /**
+     * @return  The ratio of hits over all takes, or 0 if none yet.
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long takes = hits + getMisses();
+        return takes == 0 ? 0 : (double) hits / takes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sb.length() == 0 ? "" : ", ").append("hits=[").append(getHits()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("misses=[").append(getMisses()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("produced=[").append(getProduced()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("failed=[").append(getFailed()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("available=[").append(getAvailable()).append(']');
+        return sb.toString();
+    }
+
+}
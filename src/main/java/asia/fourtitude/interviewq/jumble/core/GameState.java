@@ -1,24 +1,81 @@
 package asia.fourtitude.interviewq.jumble.core;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+/**
+ * A game: the word to guess, its scrambled letters, and the sub words
+ * with their guess progress.
+ *
+ * The sub words are kept sorted in an array, with a bitset of the
+ * guessed ones and a running count of them: so the guessed / remaining
+ * counts are O(1), a guess is a binary search, and the ordered list of
+ * guessed words is only built when asked for.
+ *
+ * Guessing is thread safe and lock free: a guess sets its bit with a CAS
+ * on the 64 bit word holding it, and only the thread flipping the bit
+ * updates the count, so concurrent guesses on the same game are never
+ * lost nor counted twice; and games never contend with each other. The
+ * counts may lag a guess still in flight by a moment. Setting the
+ * scramble is not thread safe.
+ */
 public /*record*/ class GameState {
 
+    /*
+     * Guessed words are listed shortest first, then alphabetically.
+     */
+    private static final Comparator<String> BY_LENGTH = Comparator.comparingInt(String::length);
+
     private final String original;
 
     private String scramble;
 
-    private final Map<String, Boolean> subWords;
+    /*
+     * The sub words, sorted (natural order) and distinct.
+     */
+    private final String[] words;
+
+    /*
+     * Bit `i % 64` of element `i / 64` is set when `words[i]` has been
+     * guessed.
+     */
+    private final AtomicLongArray guessed;
+
+    private final AtomicInteger guessedCount = new AtomicInteger();
+
+    private volatile Map<String, Boolean> subWordsView;
 
     public GameState(String original, String scramble, Map<String, Boolean> subWords) {
+        this(original, scramble, subWords.keySet().toArray(new String[0]));
+        for (Map.Entry<String, Boolean> entry : subWords.entrySet()) {
+            if (entry.getValue() == Boolean.TRUE) {
+                updateGuessWord(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * @param original  The word to guess.
+     * @param scramble  The scrambled letters of `original`.
+     * @param words     The sub words, none guessed yet. Taken over (sorted
+     *                  in place), so must not be shared nor modified after.
+     */
+    GameState(String original, String scramble, String[] words) {
         this.original = original;
         this.scramble = scramble;
-        this.subWords = subWords;
+        Arrays.sort(words);
+        this.words = words;
+        this.guessed = new AtomicLongArray((words.length + 63) >>> 6);
     }
 
     public String getOriginal() {
@@ -33,8 +90,46 @@ public /*record*/ class GameState {
         this.scramble = scramble;
     }
 
+    /**
+     * The sub words are fixed when the game is created, so unlike the
+     * `TreeMap` this used to return, the map cannot gain nor lose words:
+     * `put()` of an existing sub word sets its guessed flag (and updates
+     * this game), while `put()` of any other key, `remove()` and `clear()`
+     * throw `UnsupportedOperationException`. Take a copy (eg:
+     * `new TreeMap<>(getSubWords())`) for a map free to modify.
+     *
+     * @return  The sub words (sorted) and if each has been guessed. A view,
+     *          updated by {@link #updateGuessWord(String)}.
+     */
     public Map<String, Boolean> getSubWords() {
-        return subWords;
+        Map<String, Boolean> view = subWordsView;
+        if (view == null) {
+            // stateless, so a racing thread creating its own is harmless
+            view = new SubWords();
+            subWordsView = view;
+        }
+        return view;
+    }
+
+    /**
+     * @return  The number of sub words.
+     */
+    public int getTotalCount() {
+        return words.length;
+    }
+
+    /**
+     * @return  The number of sub words guessed so far.
+     */
+    public int getGuessedCount() {
+        return guessedCount.get();
+    }
+
+    /**
+     * @return  The number of sub words not guessed yet.
+     */
+    public int getRemainingCount() {
+        return words.length - guessedCount.get();
     }
 
     public String getScrambleAsDisplay() {
@@ -45,26 +140,19 @@ public /*record*/ class GameState {
         return String.join(" ", list);
     }
 
+    /**
+     * @return  A new list of the words guessed, shortest first then
+     *          alphabetically.
+     */
     public List<String> getGuessedWords() {
-        Map<Integer, Set<String>> guesseds = new TreeMap<>();
-        for (Map.Entry<String, Boolean> entry : this.subWords.entrySet()) {
-            if (entry.getValue() == Boolean.TRUE) {
-                String word = entry.getKey();
-                Integer len = word.length();
-                Set<String> words = guesseds.get(len);
-                if (words == null) {
-                    words = new TreeSet<>();
-                    guesseds.put(len, words);
-                }
-                words.add(word);
-            }
-        }
-        List<String> words = new ArrayList<>();
-        for (Map.Entry<Integer, Set<String>> entry : guesseds.entrySet()) {
-            for (String word : entry.getValue()) {
-                words.add(word);
+        List<String> words = new ArrayList<>(guessedCount.get());
+        for (int slot = 0; slot < guessed.length(); slot++) {
+            for (long bits = guessed.get(slot); bits != 0; bits &= bits - 1) {
+                words.add(this.words[(slot << 6) + Long.numberOfTrailingZeros(bits)]);
             }
         }
+        // stable, so alphabetical within each length
+        words.sort(BY_LENGTH);
         return words;
     }
 
@@ -72,11 +160,35 @@ public /*record*/ class GameState {
         if (word == null) {
             return false;
         }
-        if (this.subWords.containsKey(word)) {
-            this.subWords.put(word, Boolean.TRUE);
-            return true;
+        int index = Arrays.binarySearch(words, word);
+        if (index < 0) {
+            return false;
+        }
+        setGuessed(index, true);
+        return true;
+    }
+
+    private boolean isGuessed(int index) {
+        return (guessed.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * @return  The previous value of the bit.
+     */
+    private boolean setGuessed(int index, boolean value) {
+        int slot = index >>> 6;
+        long bit = 1L << index;
+        while (true) {
+            long bits = guessed.get(slot);
+            boolean previous = (bits & bit) != 0;
+            if (previous == value) {
+                return previous;
+            }
+            if (guessed.compareAndSet(slot, bits, value ? (bits | bit) : (bits & ~bit))) {
+                guessedCount.addAndGet(value ? 1 : -1);
+                return previous;
+            }
         }
-        return false;
     }
 
     @Override
@@ -88,10 +200,80 @@ public /*record*/ class GameState {
         if (scramble != null) {
             sb.append(sb.length() == 0 ? "" : ", ").append("scramble=[").append(scramble).append(']');
         }
-        if (subWords != null) {
-            sb.append(sb.length() == 0 ? "" : ", ").append("subWords.size=[").append(subWords.size()).append(']');
-        }
+        sb.append(sb.length() == 0 ? "" : ", ").append("subWords.size=[").append(words.length).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("guessed=[").append(guessedCount.get()).append(']');
         return sb.toString();
     }
 
+    /*
+     * Map view over the sub words and their guessed bits.
+     */
+    private final class SubWords extends AbstractMap<String, Boolean> {
+
+        @Override
+        public int size() {
+            return words.length;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public Boolean get(Object key) {
+            int index = indexOf(key);
+            return index < 0 ? null : Boolean.valueOf(isGuessed(index));
+        }
+
+        @Override
+        public Boolean put(String key, Boolean value) {
+            int index = indexOf(key);
+            if (index < 0) {
+                throw new UnsupportedOperationException("Invalid key=[" + key + "], expect existing sub word, the sub words are fixed");
+            }
+            return setGuessed(index, value == Boolean.TRUE);
+        }
+
+        @Override
+        public Set<Map.Entry<String, Boolean>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Boolean>>() {
+
+                @Override
+                public int size() {
+                    return words.length;
+                }
+
+                @Override
+                public Iterator<Map.Entry<String, Boolean>> iterator() {
+                    return new Iterator<Map.Entry<String, Boolean>>() {
+
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < words.length;
+                        }
+
+                        @Override
+                        public Map.Entry<String, Boolean> next() {
+                            if (next >= words.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int index = next++;
+                            return new AbstractMap.SimpleImmutableEntry<>(words[index], isGuessed(index));
+                        }
+
+                    };
+                }
+
+            };
+        }
+
+        private int indexOf(Object key) {
+            return (key instanceof String) ? Arrays.binarySearch(words, (String) key) : -1;
+        }
+
+    }
+
 }
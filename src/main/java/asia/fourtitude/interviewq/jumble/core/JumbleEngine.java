@@ -1,17 +1,227 @@
 package asia.fourtitude.interviewq.jumble.core;
 
-import java.io.*;
-import java.lang.System.Logger;
-import java.net.URISyntaxException;
-import java.nio.file.Files;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.io.PrintStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
-public class JumbleEngine {
+public class JumbleEngine implements Closeable {
 
+    /*
+     * The word list and its filter, shared (read-only) by all callers.
+     * Replaced as a whole on reload: each call reads this reference once,
+     * and works on that snapshot until it returns, without locking.
+     */
+    private volatile Snapshot snapshot;
+
+    private final EngineSettings settings;
+
+    private final BloomFilterMetrics filterMetrics = new BloomFilterMetrics();
+
+    private final SubWordCacheMetrics subWordCacheMetrics = new SubWordCacheMetrics();
+
+    /*
+     * Runs the sub word search of long words in parallel,
+     * or null for sequential only.
+     */
+    private final ForkJoinPool subWordPool;
+
+    private final boolean ownSubWordPool;
+
+    /*
+     * Watches the external word list, or null if none.
+     */
+    private final DictionaryWatcher watcher;
+
+    /*
+     * Ready made games for `createGameState()`, or null if disabled.
+     */
+    private final GamePool gamePool;
+
+    private final GamePoolMetrics gamePoolMetrics = new GamePoolMetrics();
+
+    private static final class Snapshot {
+
+        final Dictionary dictionary;
+
+        /*
+         * Fast negative path of `exists()`, or null if disabled.
+         */
+        final BloomFilter filter;
+
+        /*
+         * Sub word results of this dictionary, or null if disabled.
+         */
+        final SubWordCache subWordCache;
+
+        Snapshot(Dictionary dictionary, BloomFilter filter, SubWordCache subWordCache) {
+            this.dictionary = dictionary;
+            this.filter = filter;
+            this.subWordCache = subWordCache;
+        }
+
+    }
+
+    public JumbleEngine() {
+        this(new EngineSettings());
+    }
+
+    /**
+     * Creates the engine, loading the word list from
+     * {@link EngineSettings#getDictionaryPath()} (and watching it for
+     * changes), or else from classpath.
+     *
+     * @param settings  The engine settings.
+     */
+    public JumbleEngine(EngineSettings settings) {
+        this(settings, dictionaryPath(settings));
+    }
+
+    private JumbleEngine(EngineSettings settings, Path path) {
+        this(path == null ? Dictionary.fromClasspath() : loadFrom(path), settings,
+                path != null && settings.isDictionaryWatch() ? path : null);
+    }
+
+    JumbleEngine(Dictionary dictionary, EngineSettings settings) {
+        this(dictionary, settings, null);
+    }
+
+    private JumbleEngine(Dictionary dictionary, EngineSettings settings, Path watched) {
+        this.settings = Objects.requireNonNull(settings, "settings must not be null");
+        this.snapshot = newSnapshot(Objects.requireNonNull(dictionary, "dictionary must not be null"));
+        if (settings.getSubWordParallelThreshold() < 1) {
+            throw new IllegalArgumentException("Invalid subWordParallelThreshold=["
+                    + settings.getSubWordParallelThreshold() + "], expect positive integer");
+        }
+        ForkJoinPool pool = null;
+        if (settings.isSubWordParallelEnabled()) {
+            pool = settings.getSubWordParallelism() > 0
+                    ? new ForkJoinPool(settings.getSubWordParallelism())
+                    : ForkJoinPool.commonPool();
+        }
+        this.ownSubWordPool = pool != null && pool != ForkJoinPool.commonPool();
+        // a single worker only adds the cost of splitting
+        this.subWordPool = (pool != null && pool.getParallelism() > 1) ? pool : null;
+        if (this.ownSubWordPool && this.subWordPool == null) {
+            pool.shutdown();
+        }
+        if (settings.isGamePoolEnabled()) {
+            this.gamePool = new GamePool(this::newGameState, gamePoolKeys(settings.getGamePoolKeys()),
+                    settings.getGamePoolCapacity(), settings.getGamePoolLowWater(),
+                    settings.getGamePoolThreads(), this.gamePoolMetrics);
+        } else {
+            this.gamePool = null;
+        }
+        if (watched == null) {
+            this.watcher = null;
+        } else {
+            try {
+                this.watcher = new DictionaryWatcher(watched, () -> this.reload(watched));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot watch word list=[" + watched + "]", e);
+            }
+        }
+    }
+
+    private static Path dictionaryPath(EngineSettings settings) {
+        String path = settings.getDictionaryPath();
+        return (path == null || path.trim().isEmpty()) ? null : Paths.get(path.trim());
+    }
+
+    /*
+     * Parses "6:3,8:4" into `{{6, 3}, {8, 4}}`.
+     */
+    private static int[][] gamePoolKeys(String keys) {
+        List<int[]> result = new ArrayList<>();
+        for (String key : (keys == null ? "" : keys).split(",")) {
+            if (key.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = key.trim().split(":");
+            try {
+                if (parts.length != 2) {
+                    throw new NumberFormatException();
+                }
+                result.add(new int[] { Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()) });
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid gamePoolKeys=[" + keys + "], expect length:minLength,...");
+            }
+        }
+        return result.toArray(new int[0][]);
+    }
+
+    private static Dictionary loadFrom(Path path) {
+        try {
+            return Dictionary.fromPath(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load word list=[" + path + "]", e);
+        }
+    }
+
+    private Snapshot newSnapshot(Dictionary dictionary) {
+        BloomFilter filter = null;
+        if (this.settings.isBloomFilterEnabled()) {
+            filter = BloomFilter.build(dictionary.words(),
+                    this.settings.getBloomFilterFpp(), this.settings.getBloomFilterBits());
+            this.filterMetrics.filterBuilt(filter);
+        }
+        SubWordCache subWordCache = null;
+        if (this.settings.isSubWordCacheEnabled()) {
+            subWordCache = new SubWordCache(this.settings.getSubWordCacheMaxWeight(), this.subWordCacheMetrics);
+        }
+        return new Snapshot(dictionary, filter, subWordCache);
+    }
+
+    /**
+     * Reloads the word list from {@link EngineSettings#getDictionaryPath()},
+     * and rebuilds all of its indexes, on the calling thread.
+     *
+     * Calls in progress complete on the previous word list, and games
+     * already created are not affected. On failure, the previous word list
+     * stays in use.
+     *
+     * @throws IllegalStateException  If no external word list is configured.
+     * @throws UncheckedIOException   If the word list cannot be read.
+     */
+    public void reload() {
+        Path path = dictionaryPath(this.settings);
+        if (path == null) {
+            throw new IllegalStateException("No external word list configured");
+        }
+        reload(path);
+    }
+
+    private void reload(Path path) {
+        Snapshot next = newSnapshot(loadFrom(path));
+        // the only write: readers see either the old or the new snapshot
+        this.snapshot = next;
+        if (this.gamePool != null) {
+            this.gamePool.clear();
+        }
+    }
+
+    /**
+     * Stops watching the external word list (if any), and the game pool.
+     */
+    @Override
+    public void close() {
+        if (this.watcher != null) {
+            this.watcher.close();
+        }
+        if (this.gamePool != null) {
+            this.gamePool.close();
+        }
+        if (this.ownSubWordPool && this.subWordPool != null) {
+            this.subWordPool.shutdown();
+        }
+    }
 
 	/**
      * From the input `word`, produces/generates a copy which has the same
@@ -78,30 +288,20 @@ public class JumbleEngine {
          * Refer to the method's Javadoc (above) and implement accordingly.
          * Must pass the corresponding unit tests.
          */
-		List<String> palindromes = new ArrayList<>();
-        try (InputStream is = getClass().getResourceAsStream("/words.txt");
-             BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
-            palindromes = reader.lines()
-                    .filter(word -> word.length() > 1 && isPalindrome(word))
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return palindromes;
-    	
+        return this.snapshot.dictionary.palindromes();
     }
-    
-    private boolean isPalindrome(String word) {
-        int left = 0;
-        int right = word.length() - 1;
-        while (left < right) {
-            if (word.charAt(left) != word.charAt(right)) {
-                return false;
-            }
-            left++;
-            right--;
-        }
-        return true;
+
+    /**
+     * Same as {@link #retrievePalindromeWords()}, but already serialized
+     * as JSON array (UTF-8), eg: `["aha","bib","bob"]`.
+     *
+     * The palindrome words never change for a loaded word list, so the
+     * same (shared) array is returned on every call, and must not be modified.
+     *
+     * @return  The palindrome words, as JSON.
+     */
+    public byte[] retrievePalindromeWordsJson() {
+        return this.snapshot.dictionary.palindromesJson();
     }
 
     /**
@@ -122,27 +322,21 @@ public class JumbleEngine {
          * Must pass the corresponding unit tests.
          */
 
-    	
-		 List<String> wordsOfGivenLength = new ArrayList<>();
-	     try (InputStream is = getClass().getResourceAsStream("/words.txt");
-	          BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
-
-	         wordsOfGivenLength = reader.lines()
-	                 .filter(word -> word == null || validLength(length, word.length()))
-	                 .collect(Collectors.toList());
-	     } catch (Exception e) {
-	         e.printStackTrace();
-	     }
-	
-	     if (wordsOfGivenLength.isEmpty()) {
-	         return null;
-	     }
-	
-	     Random random = new Random();
-	     return wordsOfGivenLength.get(random.nextInt(wordsOfGivenLength.size()));
-     
+        return pickOneRandomWord(this.snapshot.dictionary, length);
     }
-    
+
+    private static String pickOneRandomWord(Dictionary dict, Integer length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (length == null) {
+            return dict.size() == 0 ? null : dict.words().get(random.nextInt(dict.size()));
+        }
+        int count = dict.countOfLength(length);
+        if (count == 0) {
+            return null;
+        }
+        return dict.wordOfLength(length, random.nextInt(count));
+    }
+
     public boolean validLength(Integer length, Integer wordlength) {
     	
     	if (length == null) {
@@ -171,14 +365,63 @@ public class JumbleEngine {
          * Refer to the method's Javadoc (above) and implement accordingly.
          * Must pass the corresponding unit tests.
          */
-    	
-    	 try (Stream<String> lines = Files.lines(Paths.get(getClass().getResource("/words.txt").toURI()))) {
-    	        return lines.anyMatch(line -> line.equalsIgnoreCase(word));
-    	    } catch (IOException | URISyntaxException e) {
-    	        e.printStackTrace();
-    	        return false;
-    	    }
-    
+        if (word == null || word.isEmpty()) {
+            return false;
+        }
+        Snapshot current = this.snapshot;
+        if (current.filter == null) {
+            return current.dictionary.contains(word);
+        }
+        if (! current.filter.mightContain(word)) {
+            this.filterMetrics.rejected();
+            return false;
+        }
+        boolean found = current.dictionary.contains(word);
+        this.filterMetrics.passed(found);
+        return found;
+    }
+
+    /**
+     * Checks many words at once: same as {@link #exists(String)} on each,
+     * with the word list (and filter) looked up once for the whole batch.
+     * Matching is case insensitive, without lower casing the words.
+     *
+     * @param words  The words to check, null or empty elements are not words.
+     * @return  `result[i]` is true if `words.get(i)` exists in the word list.
+     */
+    public boolean[] existsAll(List<? extends CharSequence> words) {
+        Objects.requireNonNull(words, "words must not be null");
+        Snapshot current = this.snapshot;
+        boolean[] result = new boolean[words.size()];
+        long rejected = 0;
+        long passed = 0;
+        long falsePositives = 0;
+        int i = 0;
+        for (CharSequence word : words) {
+            if (word == null || word.length() == 0) {
+                result[i++] = false;
+            } else if (current.filter != null && ! current.filter.mightContain(word)) {
+                rejected++;
+                result[i++] = false;
+            } else {
+                boolean found = current.dictionary.contains(word);
+                if (current.filter != null) {
+                    passed++;
+                    falsePositives += found ? 0 : 1;
+                }
+                result[i++] = found;
+            }
+        }
+        this.filterMetrics.batch(rejected, passed, falsePositives);
+        return result;
+    }
+
+    /**
+     * @return  The counters of the Bloom filter in front of {@link #exists(String)}.
+     *          All zero if the filter is disabled, see {@link EngineSettings}.
+     */
+    public BloomFilterMetrics getBloomFilterMetrics() {
+        return this.filterMetrics;
     }
 
     /**
@@ -203,21 +446,26 @@ public class JumbleEngine {
          * Must pass the corresponding unit tests.
          */
 
-    	List<String> matchList = new ArrayList<>();    	
-    	try (InputStream is = getClass().getResourceAsStream("/words.txt");
-            BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
-			  	if (prefix == null || prefix.trim().isEmpty() || !prefix.matches("[a-zA-Z]+")) {
-		            return matchList; 
-		        }
-			  	matchList = reader.lines()
-		                 .filter(word -> word != null && word.toLowerCase().startsWith(prefix.toLowerCase()))
-		                 .collect(Collectors.toList());
-               
-           } catch (Exception e) {
-               e.printStackTrace();
-           }
-        return matchList;
+        if (! isLetters(prefix)) {
+            return Collections.emptyList();
+        }
+        return this.snapshot.dictionary.wordsWithPrefix(prefix);
+    }
 
+    /*
+     * Same as `word.matches("[a-zA-Z]+")`, without the regular expression.
+     */
+    private static boolean isLetters(String word) {
+        if (word == null || word.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            char ch = word.charAt(i);
+            if ((ch < 'a' || ch > 'z') && (ch < 'A' || ch > 'Z')) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -249,31 +497,29 @@ public class JumbleEngine {
          * Refer to the method's Javadoc (above) and implement accordingly.
          * Must pass the corresponding unit tests.
          */
-    	List<String> matchList = new ArrayList<>();   
-    	  if (startChar == null && endChar == null && (length == null || length < 1)) {
-
-              return matchList;
-          }
-    	try (InputStream is = getClass().getResourceAsStream("/words.txt");
-            BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
-
-			  	matchList = reader.lines()
-		                 .filter(word -> validWord(word,startChar,endChar))
-		                 .collect(Collectors.toList());
-			  	if (length != null && length >= 1) {
-	                matchList = matchList.stream()
-	                        .filter(word -> word.length() == length)
-	                        .collect(Collectors.toList());
-		           }
-
-           } catch (Exception e) {
-               e.printStackTrace();
-           }
-    	
-        return matchList;
- 
+        if (startChar == null && endChar == null && (length == null || length < 1)) {
+            return new ArrayList<>();
+        }
+        int first = letterIndex(startChar);
+        int last = letterIndex(endChar);
+        if ((startChar != null && first < 0) || (endChar != null && last < 0)) {
+            // not a letter, nothing can match
+            return new ArrayList<>();
+        }
+        return this.snapshot.dictionary.search(first, last, (length == null || length < 1) ? 0 : length);
     }
-    
+
+    /*
+     * Maps letter 'a' (or 'A') to 'z' (or 'Z') to 0 to 25, else -1.
+     */
+    private static int letterIndex(Character ch) {
+        if (ch == null) {
+            return -1;
+        }
+        char lower = Character.toLowerCase(ch);
+        return (lower >= 'a' && lower <= 'z') ? lower - 'a' : -1;
+    }
+
     public boolean validWord(String word,Character startChar, Character endChar) {
     	
     	if (word == null) {
@@ -317,30 +563,42 @@ public class JumbleEngine {
          * Refer to the method's Javadoc (above) and implement accordingly.
          * Must pass the corresponding unit tests.
          */
-    	List<String> subWords = new ArrayList<>();  
-    	
-    	  if (minLength == null) {
-              minLength = 3;
-          }
-
-          if (word == null || minLength < 1 || word.length() < minLength || !word.matches("[a-zA-Z]+")) {
-              return subWords;
-          }
-          generateSubWordsHelper(word, "", minLength, subWords,word.length(), word);
-      return subWords;
-    }
-    
-    private void generateSubWordsHelper(String remaining, String current, int minLength, List<String> subWords,int originalLength, String originalWord) {
-        if (current.length() >= minLength && current.length() <= originalLength && !current.equals(originalWord) &&  exists(current) && !subWords.contains(current) ) {
-            subWords.add(current);
+        if (minLength == null) {
+            minLength = 3;
+        }
+        if (word == null || minLength < 1 || word.length() < minLength || ! isLetters(word)) {
+            return new ArrayList<>();
         }
+        return subWords(this.snapshot, word, minLength);
+    }
 
-        for (int i = 0; i < remaining.length(); i++) {
-            generateSubWordsHelper(remaining.substring(0, i) + remaining.substring(i + 1),
-                    current + remaining.charAt(i), minLength, subWords, originalLength, originalWord);
+    /*
+     * Sub words of `word`, through the cache of `current` if enabled, and
+     * searched in parallel if long enough.
+     */
+    private List<String> subWords(Snapshot current, String word, int minLength) {
+        Dictionary dict = current.dictionary;
+        int[] counts = AnagramIndex.letterCounts(word);
+        if (counts == null) {
+            return new ArrayList<>();
+        }
+        long threshold = this.settings.getSubWordParallelThreshold();
+        int[] ids;
+        if (current.subWordCache == null) {
+            ids = dict.subWordIds(counts, minLength, this.subWordPool, threshold);
+        } else {
+            ids = current.subWordCache.get(AnagramIndex.signature(word), minLength,
+                    () -> dict.subWordIds(counts, minLength, this.subWordPool, threshold));
         }
+        return dict.words(ids, dict.indexOf(word));
+    }
+
+    /**
+     * @return  The counters of the sub word result cache, see {@link EngineSettings}.
+     */
+    public SubWordCacheMetrics getSubWordCacheMetrics() {
+        return this.subWordCacheMetrics;
     }
-      
 
     /**
      * Creates a game state with word to guess, scrambled letters, and
@@ -357,6 +615,65 @@ public class JumbleEngine {
      * @return  The game state.
      */
     public GameState createGameState(Integer length, Integer minLength) {
+        int min = gameMinLength(length, minLength);
+        return takeOrNewGameState(length, min);
+    }
+
+    /**
+     * Creates `count` game states in parallel, same as calling
+     * {@link #createGameState(Integer, Integer)} `count` times.
+     *
+     * The arguments are validated on the calling thread, then the games
+     * are created on the sub word fork/join pool (or the common pool), and
+     * handed to `consumer` as soon as each one is ready: from many threads
+     * at once, in no particular order.
+     *
+     * Cancelling the returned future stops creating the remaining games.
+     *
+     * @param count      The number of games, expects positive integer.
+     * @param length     The length of selected word, see {@link #createGameState(Integer, Integer)}.
+     * @param minLength  The minimum length of sub words, see {@link #createGameState(Integer, Integer)}.
+     * @param consumer   Receives each game, must be thread safe.
+     * @return  Completes once all games are handed to `consumer`, or
+     *          exceptionally on the first error.
+     */
+    public CompletableFuture<Void> createGameStates(int count, Integer length, Integer minLength,
+            Consumer<? super GameState> consumer) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Invalid count=[" + count + "], expect positive integer");
+        }
+        int min = gameMinLength(length, minLength);
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        ForkJoinPool pool = (this.subWordPool != null) ? this.subWordPool : ForkJoinPool.commonPool();
+        pool.execute(() -> {
+            try {
+                // a parallel stream started from a pool worker runs in that pool
+                IntStream.range(0, count).parallel().forEach(i -> {
+                    if (! done.isDone()) {
+                        consumer.accept(takeOrNewGameState(length, min));
+                    }
+                });
+                done.complete(null);
+            } catch (Throwable e) {
+                done.completeExceptionally(e);
+            }
+        });
+        return done;
+    }
+
+    /**
+     * @return  The counters of the pool of ready made games behind
+     *          {@link #createGameState(Integer, Integer)}.
+     */
+    public GamePoolMetrics getGamePoolMetrics() {
+        return this.gamePoolMetrics;
+    }
+
+    /*
+     * Validates the game arguments, returns the (default) minLength.
+     */
+    private static int gameMinLength(Integer length, Integer minLength) {
         Objects.requireNonNull(length, "length must not be null");
         if (minLength == null) {
             minLength = 3;
@@ -369,16 +686,30 @@ public class JumbleEngine {
         if (minLength > length) {
             throw new IllegalArgumentException("Expect minLength=[" + minLength + "] greater than length=[" + length + "]");
         }
-        String original = this.pickOneRandomWord(length);
+        return minLength;
+    }
+
+    private GameState takeOrNewGameState(int length, int minLength) {
+        GameState pooled = (this.gamePool == null) ? null : this.gamePool.take(length, minLength);
+        if (pooled != null) {
+            return pooled;
+        }
+        return newGameState(length, minLength);
+    }
+
+    /*
+     * Creates a game, on the calling thread. Arguments already validated.
+     */
+    private GameState newGameState(int length, int minLength) {
+        // one snapshot for both the word and its sub words, even across a reload
+        Snapshot current = this.snapshot;
+        String original = pickOneRandomWord(current.dictionary, length);
         if (original == null) {
             throw new IllegalArgumentException("Cannot find valid word to create game state");
         }
         String scramble = this.scramble(original);
-        Map<String, Boolean> subWords = new TreeMap<>();
-        for (String subWord : this.generateSubWords(original, minLength)) {
-            subWords.put(subWord, Boolean.FALSE);
-        }
-        return new GameState(original, scramble, subWords);
+        List<String> subWords = subWords(current, original, minLength);
+        return new GameState(original, scramble, subWords.toArray(new String[0]));
     }
 
 }
@@ -0,0 +1,182 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact (array based) prefix tree over a sorted word list.
+ *
+ * Because the words are sorted, every word under a node is in one
+ * contiguous range of the word list. So each node only records that range
+ * `[lo, hi)`, and finding the words for a prefix is a walk of
+ * O(|prefix|) nodes followed by a sub list of the result, in sorted order.
+ *
+ * The nodes are plain int arrays, built by {@link #build(List)} and then
+ * queried in place (from heap, or from the compiled word list).
+ */
+final class PrefixTrie {
+
+    private static final int ROOT = 0;
+
+    private static final int NONE = -1;
+
+    private final IntBuffer label;
+
+    private final IntBuffer firstChild;
+
+    private final IntBuffer nextSibling;
+
+    private final IntBuffer lo;
+
+    private final IntBuffer hi;
+
+    /**
+     * @param sections  The arrays produced by {@link #build(List)}, in order.
+     */
+    PrefixTrie(IntBuffer[] sections) {
+        this.label = sections[0];
+        this.firstChild = sections[1];
+        this.nextSibling = sections[2];
+        this.lo = sections[3];
+        this.hi = sections[4];
+    }
+
+    /**
+     * Finds the range of words starting with `prefix`.
+     * Matching is case insensitive (ASCII letters).
+     *
+     * @param prefix  The prefix to look up.
+     * @return  `{lo, hi}` (exclusive) into the word list, or null if none.
+     */
+    int[] find(CharSequence prefix) {
+        int node = ROOT;
+        for (int i = 0, n = prefix.length(); i < n && node != NONE; i++) {
+            char ch = prefix.charAt(i);
+            if (ch >= 'A' && ch <= 'Z') {
+                ch = (char) (ch + ('a' - 'A'));
+            }
+            int child = firstChild.get(node);
+            while (child != NONE && label.get(child) != ch) {
+                child = nextSibling.get(child);
+            }
+            node = child;
+        }
+        if (node == NONE) {
+            return null;
+        }
+        return new int[] { lo.get(node), hi.get(node) };
+    }
+
+    /**
+     * Builds the tree for `words`.
+     *
+     * @param words  Lower case words, sorted and without duplicates.
+     * @return  The node arrays: label, firstChild, nextSibling, lo, hi.
+     */
+    static int[][] build(List<String> words) {
+        return new Builder(words.size()).add(words).toArrays();
+    }
+
+    private static final class Builder {
+
+        private int[] label;
+
+        private int[] firstChild;
+
+        private int[] nextSibling;
+
+        private int[] lo;
+
+        private int[] hi;
+
+        private int nodes;
+
+        Builder(int size) {
+            int capacity = Math.max(16, size * 2);
+            this.label = new int[capacity];
+            this.firstChild = new int[capacity];
+            this.nextSibling = new int[capacity];
+            this.lo = new int[capacity];
+            this.hi = new int[capacity];
+            newNode('\0', 0);
+        }
+
+        Builder add(List<String> words) {
+            int[] path = new int[64];
+            String previous = "";
+            for (int i = 0; i < words.size(); i++) {
+                String word = words.get(i);
+                if (path.length <= word.length()) {
+                    path = Arrays.copyOf(path, word.length() * 2);
+                }
+                int common = commonPrefix(previous, word);
+                int node = (common == 0) ? ROOT : path[common - 1];
+                for (int depth = common; depth < word.length(); depth++) {
+                    int child = newNode(word.charAt(depth), i);
+                    // sorted input, so the new child is always the last sibling
+                    appendChild(node, child);
+                    node = child;
+                    path[depth] = node;
+                }
+                // extends the range of the root, and every node on the path
+                hi[ROOT] = i + 1;
+                for (int depth = 0; depth < word.length(); depth++) {
+                    hi[path[depth]] = i + 1;
+                }
+                previous = word;
+            }
+            return this;
+        }
+
+        int[][] toArrays() {
+            return new int[][] {
+                    Arrays.copyOf(label, nodes),
+                    Arrays.copyOf(firstChild, nodes),
+                    Arrays.copyOf(nextSibling, nodes),
+                    Arrays.copyOf(lo, nodes),
+                    Arrays.copyOf(hi, nodes) };
+        }
+
+        private int newNode(char ch, int index) {
+            if (nodes == label.length) {
+                int capacity = nodes + (nodes >> 1);
+                label = Arrays.copyOf(label, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                lo = Arrays.copyOf(lo, capacity);
+                hi = Arrays.copyOf(hi, capacity);
+            }
+            int node = nodes++;
+            label[node] = ch;
+            firstChild[node] = NONE;
+            nextSibling[node] = NONE;
+            lo[node] = index;
+            hi[node] = index + 1;
+            return node;
+        }
+
+        private void appendChild(int parent, int child) {
+            int last = firstChild[parent];
+            if (last == NONE) {
+                firstChild[parent] = child;
+                return;
+            }
+            while (nextSibling[last] != NONE) {
+                last = nextSibling[last];
+            }
+            nextSibling[last] = child;
+        }
+
+        private static int commonPrefix(String a, String b) {
+            int n = Math.min(a.length(), b.length());
+            int i = 0;
+            while (i < n && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+
+    }
+
+}
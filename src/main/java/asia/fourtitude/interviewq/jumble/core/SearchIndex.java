@@ -0,0 +1,134 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index of word by (first letter, last letter, length).
+ *
+ * Each of the 26 x 26 x (maxLength + 1) buckets holds the (ascending)
+ * indexes of its words. A search with any mix of the three criteria then
+ * only reads the buckets it matches, so the cost is proportional to the
+ * result size rather than to the dictionary size.
+ */
+final class SearchIndex {
+
+    private final int maxLength;
+
+    /*
+     * Words of bucket `b` are `ids[start[b]]` to `ids[start[b + 1] - 1]`.
+     */
+    private final IntBuffer start;
+
+    private final IntBuffer ids;
+
+    /**
+     * @param sections  The arrays produced by {@link #build(List)}, in order.
+     */
+    SearchIndex(IntBuffer[] sections) {
+        this.start = sections[0];
+        this.ids = sections[1];
+        this.maxLength = (start.limit() - 1) / (26 * 26) - 1;
+    }
+
+    /**
+     * Finds the words matching all of the given criteria.
+     *
+     * @param first   The first letter 0 ('a') to 25 ('z'), or -1 for any.
+     * @param last    The last letter 0 ('a') to 25 ('z'), or -1 for any.
+     * @param length  The word length, or 0 for any.
+     * @return  The indexes of matching words, ascending.
+     */
+    int[] search(int first, int last, int length) {
+        if (length > maxLength) {
+            return new int[0];
+        }
+        int fromFirst = first < 0 ? 0 : first;
+        int toFirst = first < 0 ? 25 : first;
+        int fromLast = last < 0 ? 0 : last;
+        int toLast = last < 0 ? 25 : last;
+        int fromLength = length <= 0 ? 1 : length;
+        int toLength = length <= 0 ? maxLength : length;
+
+        int size = 0;
+        int nonEmpty = 0;
+        for (int f = fromFirst; f <= toFirst; f++) {
+            for (int l = fromLast; l <= toLast; l++) {
+                for (int len = fromLength; len <= toLength; len++) {
+                    int b = bucket(maxLength, f, l, len);
+                    int count = start.get(b + 1) - start.get(b);
+                    size += count;
+                    nonEmpty += count > 0 ? 1 : 0;
+                }
+            }
+        }
+        int[] result = new int[size];
+        int pos = 0;
+        for (int f = fromFirst; f <= toFirst; f++) {
+            for (int l = fromLast; l <= toLast; l++) {
+                for (int len = fromLength; len <= toLength; len++) {
+                    int b = bucket(maxLength, f, l, len);
+                    for (int i = start.get(b), end = start.get(b + 1); i < end; i++) {
+                        result[pos++] = ids.get(i);
+                    }
+                }
+            }
+        }
+        if (nonEmpty > 1) {
+            // restores the dictionary (sorted) order across buckets
+            Arrays.sort(result);
+        }
+        return result;
+    }
+
+    /**
+     * Builds the index for `words`.
+     *
+     * @param words  Lower case words, sorted.
+     * @return  The arrays: bucket start, word indexes.
+     */
+    static int[][] build(List<String> words) {
+        int maxLength = 0;
+        for (String word : words) {
+            maxLength = Math.max(maxLength, word.length());
+        }
+        int buckets = 26 * 26 * (maxLength + 1);
+        int[] start = new int[buckets + 1];
+        for (String word : words) {
+            int bucket = bucketOf(maxLength, word);
+            if (bucket >= 0) {
+                start[bucket + 1] += 1;
+            }
+        }
+        for (int b = 1; b <= buckets; b++) {
+            start[b] += start[b - 1];
+        }
+        int[] ids = new int[start[buckets]];
+        int[] next = Arrays.copyOf(start, buckets);
+        for (int i = 0; i < words.size(); i++) {
+            int bucket = bucketOf(maxLength, words.get(i));
+            if (bucket >= 0) {
+                ids[next[bucket]++] = i;
+            }
+        }
+        return new int[][] { start, ids };
+    }
+
+    private static int bucket(int maxLength, int first, int last, int length) {
+        return (first * 26 + last) * (maxLength + 1) + length;
+    }
+
+    private static int bucketOf(int maxLength, String word) {
+        if (word.isEmpty()) {
+            return -1;
+        }
+        int first = word.charAt(0) - 'a';
+        int last = word.charAt(word.length() - 1) - 'a';
+        if (first < 0 || first >= 26 || last < 0 || last >= 26) {
+            return -1;
+        }
+        return bucket(maxLength, first, last, word.length());
+    }
+
+}
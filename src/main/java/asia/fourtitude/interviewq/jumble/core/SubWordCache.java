@@ -0,0 +1,121 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of sub word results, keyed by (letter signature,
+ * minLength). All the anagrams of a word have the same signature, so they
+ * share one entry, eg: "evil", "live" and "vile" all hit "eilv".
+ *
+ * Values are the word indexes (ascending) into one {@link Dictionary},
+ * so a cache is only valid for the dictionary it was filled from.
+ *
+ * Weighed by the number of word indexes held. Split in segments, each
+ * an access ordered `LinkedHashMap` under its own lock, so concurrent
+ * callers rarely contend. Results are computed outside of the lock: two
+ * callers missing the same key at once may both compute it.
+ */
+final class SubWordCache {
+
+    private static final int SEGMENTS = 16;
+
+    /*
+     * Fixed cost of an entry (key, map entry), in word indexes.
+     */
+    private static final int ENTRY_WEIGHT = 8;
+
+    private final Segment[] segments;
+
+    private final SubWordCacheMetrics metrics;
+
+    /**
+     * @param maxWeight  The maximum total weight (word indexes) kept.
+     * @param metrics    Receives the cache counters.
+     */
+    SubWordCache(long maxWeight, SubWordCacheMetrics metrics) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("Invalid maxWeight=[" + maxWeight + "], expect positive integer");
+        }
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment(Math.max(1, maxWeight / SEGMENTS));
+        }
+        this.metrics = metrics;
+        this.metrics.cacheCreated(this::weight);
+    }
+
+    /**
+     * @param signature  The sorted letters, see {@link AnagramIndex#signature(CharSequence)}.
+     * @param minLength  The minimum length of the sub words.
+     * @param compute    Computes the result, on a miss.
+     * @return  The cached (shared, must not be modified) or computed result.
+     */
+    int[] get(String signature, int minLength, Supplier<int[]> compute) {
+        String key = minLength + ":" + signature;
+        Segment segment = this.segments[(key.hashCode() & 0x7fffffff) % SEGMENTS];
+        int[] ids = segment.get(key);
+        if (ids != null) {
+            this.metrics.hit();
+            return ids;
+        }
+        this.metrics.miss();
+        ids = compute.get();
+        segment.put(key, ids);
+        return ids;
+    }
+
+    long weight() {
+        long weight = 0;
+        for (Segment segment : this.segments) {
+            weight += segment.weight();
+        }
+        return weight;
+    }
+
+    private final class Segment {
+
+        private final LinkedHashMap<String, int[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private final long maxWeight;
+
+        private long weight;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized int[] get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, int[] ids) {
+            long entryWeight = weigh(ids);
+            if (entryWeight > maxWeight) {
+                // would evict everything else, not worth keeping
+                return;
+            }
+            int[] previous = entries.put(key, ids);
+            weight += entryWeight - (previous == null ? 0 : weigh(previous));
+            Iterator<Map.Entry<String, int[]>> eldest = entries.entrySet().iterator();
+            while (weight > maxWeight && eldest.hasNext()) {
+                Map.Entry<String, int[]> entry = eldest.next();
+                weight -= weigh(entry.getValue());
+                eldest.remove();
+                metrics.evicted();
+            }
+        }
+
+        synchronized long weight() {
+            return weight;
+        }
+
+        private long weigh(int[] ids) {
+            return ENTRY_WEIGHT + ids.length;
+        }
+
+    }
+
+}
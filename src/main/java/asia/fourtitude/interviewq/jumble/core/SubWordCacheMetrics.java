@@ -0,0 +1,79 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters of the sub word result cache behind
+ * {@link JumbleEngine#generateSubWords(String, Integer)} and
+ * {@link JumbleEngine#createGameState(Integer, Integer)}.
+ *
+ * - hits: results served from the cache (same letters and minLength).
+ * - misses: results computed.
+ * - evictions: entries dropped to stay within the maximum weight.
+ * - weight: word indexes held by the cache right now.
+ *
+ * Thread safe, and cheap to update from many threads.
+ */
+public final class SubWordCacheMetrics {
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile LongSupplier weight = () -> 0;
+
+    void cacheCreated(LongSupplier weight) {
+        this.weight = weight;
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    void evicted() {
+        evictions.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getWeight() {
+        return weight.getAsLong();
+    }
+
+    /**
+     * @return  The ratio of hits over all lookups, or 0 if none yet.
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sb.length() == 0 ? "" : ", ").append("hits=[").append(getHits()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("misses=[").append(getMisses()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("evictions=[").append(getEvictions()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("weight=[").append(getWeight()).append(']');
+        return sb.toString();
+    }
+
+}
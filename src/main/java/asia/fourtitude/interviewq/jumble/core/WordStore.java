@@ -0,0 +1,124 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Packed storage of the words: the ASCII bytes of all the words in one
+ * contiguous buffer, and an int offset table into it.
+ *
+ * Compared to one `String` per word, this saves the object headers, the
+ * `byte[]` / `char[]` and the cached hash of every word, and can live off
+ * heap (memory mapped, or in a direct buffer). Words are compared in place,
+ * and a `String` is only created when a word is handed out of the engine.
+ */
+final class WordStore {
+
+    /*
+     * Word `i` is `bytes[offsets[i]]` to `bytes[offsets[i + 1] - 1]`.
+     */
+    private final IntBuffer offsets;
+
+    private final ByteBuffer bytes;
+
+    private final List<String> list = new Words();
+
+    /**
+     * @param offsets  The offset table, one more entry than there are words.
+     * @param bytes    The ASCII bytes of the words, back to back.
+     */
+    WordStore(IntBuffer offsets, ByteBuffer bytes) {
+        this.offsets = offsets;
+        this.bytes = bytes;
+    }
+
+    int size() {
+        return offsets.limit() - 1;
+    }
+
+    /**
+     * @param index  The word index.
+     * @return  The length of word `index`.
+     */
+    int length(int index) {
+        return offsets.get(index + 1) - offsets.get(index);
+    }
+
+    /**
+     * @param index  The word index.
+     * @param pos    The position in the word.
+     * @return  The character at `pos` of word `index`.
+     */
+    char charAt(int index, int pos) {
+        return (char) (bytes.get(offsets.get(index) + pos) & 0xff);
+    }
+
+    /**
+     * @param index  The word index.
+     * @return  Word `index`, as a new String.
+     */
+    String get(int index) {
+        int from = offsets.get(index);
+        int len = offsets.get(index + 1) - from;
+        char[] chars = new char[len];
+        for (int i = 0; i < len; i++) {
+            chars[i] = (char) (bytes.get(from + i) & 0xff);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Compares word `index` to `word`, folding ASCII upper case letters of
+     * `word` to lower case (the stored words are lower case).
+     *
+     * @param index  The word index.
+     * @param word   The word to compare to.
+     * @return  true if equal.
+     */
+    boolean equalsFolded(int index, CharSequence word) {
+        int from = offsets.get(index);
+        int len = offsets.get(index + 1) - from;
+        if (len != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            char ch = word.charAt(i);
+            if (ch >= 'A' && ch <= 'Z') {
+                ch = (char) (ch + ('a' - 'A'));
+            }
+            if ((bytes.get(from + i) & 0xff) != ch) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return  All the words, as an unmodifiable list view. Each `get()`
+     *          creates the String of that word.
+     */
+    List<String> asList() {
+        return list;
+    }
+
+    private final class Words extends AbstractList<String> implements RandomAccess {
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Invalid index=[" + index + "]");
+            }
+            return WordStore.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return WordStore.this.size();
+        }
+
+    }
+
+}
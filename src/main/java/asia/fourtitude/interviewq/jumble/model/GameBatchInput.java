@@ -0,0 +1,94 @@
+package asia.fourtitude.interviewq.jumble.model;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+
+@JsonInclude(Include.NON_NULL)
+public class GameBatchInput {
+
+    @Schema(
+            title = "Count",
+            description = "The number of games to create.",
+            example = "100",
+            minimum = "1",
+            maximum = "10000",
+            nullable = false,
+            requiredMode = RequiredMode.REQUIRED)
+    @NotNull
+    @Min(1)
+    @Max(10000)
+    private Integer count;
+
+    @Schema(
+            title = "Length",
+            description = "The length of the word to guess.",
+            example = "6",
+            defaultValue = "6",
+            minimum = "3",
+            maximum = "30",
+            requiredMode = RequiredMode.NOT_REQUIRED)
+    @Min(3)
+    @Max(30)
+    private Integer length;
+
+    @Schema(
+            title = "Minimum Length",
+            description = "The minimum length of the sub words to guess.",
+            example = "3",
+            defaultValue = "3",
+            minimum = "1",
+            maximum = "30",
+            requiredMode = RequiredMode.NOT_REQUIRED)
+    @JsonProperty(value = "min_length")
+    @Min(1)
+    @Max(30)
+    private Integer minLength;
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    public Integer getLength() {
+        return length;
+    }
+
+    public void setLength(Integer length) {
+        this.length = length;
+    }
+
+    public Integer getMinLength() {
+        return minLength;
+    }
+
+    public void setMinLength(Integer minLength) {
+        this.minLength = minLength;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (count != null) {
+            sb.append(sb.length() == 0 ? "" : ", ").append("count=[").append(count).append(']');
+        }
+        if (length != null) {
+            sb.append(sb.length() == 0 ? "" : ", ").append("length=[").append(length).append(']');
+        }
+        if (minLength != null) {
+            sb.append(sb.length() == 0 ? "" : ", ").append("minLength=[").append(minLength).append(']');
+        }
+        return sb.toString();
+    }
+
+}
@@ -10,7 +10,10 @@ public class GameGuessModel {
 
     private Date createdAt;
 
-    private Date modifiedAt;
+    /*
+     * Read by the store / journal threads, see `updateModifiedAt()`.
+     */
+    private volatile Date modifiedAt;
 
     private GameState gameState;
 
@@ -38,6 +41,17 @@ public class GameGuessModel {
         this.modifiedAt = modifiedAt;
     }
 
+    /**
+     * Moves `modifiedAt` forward to `modifiedAt`, never back, so plays of
+     * this board at the same time keep the latest.
+     */
+    public synchronized void updateModifiedAt(Date modifiedAt) {
+        Date current = this.modifiedAt;
+        if (current == null || current.before(modifiedAt)) {
+            this.modifiedAt = modifiedAt;
+        }
+    }
+
     public GameState getGameState() {
         return gameState;
     }
@@ -0,0 +1,672 @@
+package asia.fourtitude.interviewq.jumble.store;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import asia.fourtitude.interviewq.jumble.core.GameState;
+import asia.fourtitude.interviewq.jumble.model.GameGuessModel;
+
+/**
+ * Append-only journal of the games, on local disk, in a directory of:
+ *
+ * - "journal-N.log": segment N of the journal, records in append order.
+ * - "snapshot-N.bin": every live game as of the start of segment N, so
+ *   only the segments from N onwards are needed on top of it.
+ *
+ * Records are framed as (body length, CRC32 of body, body), so a record
+ * torn by a crash is detected, and the replay of its segment stops there:
+ *
+ * - CREATE: id, createdAt, modifiedAt, original, scramble, sub words
+ *   (sorted) and a bitmap of the guessed ones. Also used in snapshots.
+ * - GUESS: id, modifiedAt, word.
+ * - REMOVE: id.
+ * - END: the number of games, last record of a complete snapshot.
+ *
+ * Callers encode their record and queue it. One writer thread appends
+ * whatever is queued and calls `fsync` at most once per `syncInterval`,
+ * committing all the records of that interval together (group commit).
+ *
+ * Once a segment outgrows `segmentBytes` (or `snapshotInterval` passed),
+ * the writer starts a new segment N, and another thread writes
+ * "snapshot-N.bin" from the live games, then deletes everything older
+ * (compaction). Replay is idempotent (create if absent, guesses only set
+ * flags), so games changed while the snapshot is written are fine.
+ */
+final class GameJournal implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GameJournal.class);
+
+    private static final byte CREATE = 1;
+
+    private static final byte GUESS = 2;
+
+    private static final byte REMOVE = 3;
+
+    private static final byte END = 9;
+
+    /*
+     * A larger body length is taken as a torn / corrupted record.
+     */
+    private static final int MAX_BODY = 1 << 20;
+
+    private static final int WRITE_BUFFER = 256 * 1024;
+
+    /*
+     * How often an idle writer checks if a snapshot is due.
+     */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final Path dir;
+
+    private final long syncIntervalMillis;
+
+    private final long segmentBytes;
+
+    private final long snapshotIntervalMillis;
+
+    /*
+     * Visits the live games, to snapshot them.
+     */
+    private final Consumer<Consumer<GameGuessModel>> games;
+
+    private final GameJournalMetrics metrics;
+
+    private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+
+    /*
+     * Guards `appended`, so records are queued in sequence order.
+     */
+    private final Object appendLock = new Object();
+
+    private long appended;
+
+    /*
+     * Records synced to disk so far, waited on by `awaitSynced()`.
+     */
+    private final Object syncLock = new Object();
+
+    private long synced;
+
+    private volatile IOException failure;
+
+    private volatile boolean closed;
+
+    /*
+     * Owned by the writer thread.
+     */
+    private FileChannel segment;
+
+    private long segmentNumber;
+
+    private long lastSnapshotMillis;
+
+    private final Thread writer;
+
+    private final ExecutorService snapshotter;
+
+    private final AtomicBoolean snapshotting = new AtomicBoolean();
+
+    /**
+     * Opens the journal in `dir` (created if missing), rebuilds the games
+     * from it into `recovered`, then starts a new segment.
+     *
+     * @param games      Visits the live games, for the snapshots.
+     * @param recovered  Receives the games rebuilt, by id.
+     */
+    GameJournal(Path dir, GameStoreSettings settings, Consumer<Consumer<GameGuessModel>> games,
+            Map<String, GameGuessModel> recovered, GameJournalMetrics metrics) throws IOException {
+        this.dir = dir;
+        this.syncIntervalMillis = settings.getJournalSyncInterval().toMillis();
+        this.segmentBytes = settings.getJournalSegmentBytes();
+        this.snapshotIntervalMillis = settings.getSnapshotInterval().toMillis();
+        if (this.segmentBytes < 1) {
+            throw new IllegalArgumentException("Invalid journalSegmentBytes=[" + this.segmentBytes + "], expect positive integer");
+        }
+        this.games = games;
+        this.metrics = metrics;
+        Files.createDirectories(dir);
+
+        long start = System.nanoTime();
+        long next = recover(recovered);
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        this.metrics.recovered(recovered.size(), millis);
+        LOG.info("Recovered games=[{}] from dir=[{}] in {} ms", recovered.size(), dir, millis);
+
+        this.segmentNumber = next;
+        this.segment = openSegment(next);
+        this.lastSnapshotMillis = System.currentTimeMillis();
+        this.metrics.journalOpened(this.queue::size);
+        this.snapshotter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jumble-game-journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer = new Thread(this::write, "jumble-game-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * @return  The sequence of the record, see {@link #awaitSynced(long)}.
+     */
+    long appendCreate(GameGuessModel board) {
+        return append(encodeCreate(board));
+    }
+
+    long appendGuess(GameGuessModel board, String word) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(GUESS);
+            out.writeUTF(board.getId());
+            out.writeLong(board.getModifiedAt().getTime());
+            out.writeUTF(word == null ? "" : word);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return append(frame(bytes));
+    }
+
+    long appendRemove(String id) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(REMOVE);
+            out.writeUTF(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return append(frame(bytes));
+    }
+
+    /**
+     * Waits until the record `sequence` (and all before it) is synced to disk.
+     */
+    void awaitSynced(long sequence) {
+        synchronized (this.syncLock) {
+            while (this.synced < sequence) {
+                checkFailure();
+                try {
+                    this.syncLock.wait(this.syncIntervalMillis + 100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for journal sync", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.snapshotter.shutdown();
+        try {
+            this.snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            this.segment.close();
+        } catch (IOException e) {
+            LOG.warn("Cannot close journal segment=[{}]", this.segmentNumber, e);
+        }
+    }
+
+    private long append(byte[] frame) {
+        checkFailure();
+        if (this.closed) {
+            throw new IllegalStateException("Journal closed, dir=[" + this.dir + "]");
+        }
+        synchronized (this.appendLock) {
+            this.queue.add(frame);
+            return ++this.appended;
+        }
+    }
+
+    private void checkFailure() {
+        IOException failure = this.failure;
+        if (failure != null) {
+            throw new IllegalStateException("Journal failed, dir=[" + this.dir + "]", failure);
+        }
+    }
+
+    /*
+     * The writer thread.
+     */
+    private void write() {
+        List<byte[]> batch = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER);
+        long written = 0;
+        long unsynced = 0;
+        long nextSync = 0;
+        try {
+            while (! this.closed || ! this.queue.isEmpty() || unsynced > 0) {
+                long now = System.currentTimeMillis();
+                long wait = (unsynced > 0) ? Math.max(0, nextSync - now) : IDLE_POLL_MILLIS;
+                byte[] first = this.queue.poll(wait, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    this.queue.drainTo(batch);
+                    long bytes = 0;
+                    for (byte[] frame : batch) {
+                        if (buffer.remaining() < frame.length) {
+                            flush(buffer);
+                        }
+                        if (frame.length > buffer.capacity()) {
+                            this.segment.write(ByteBuffer.wrap(frame));
+                        } else {
+                            buffer.put(frame);
+                        }
+                        bytes += frame.length;
+                    }
+                    flush(buffer);
+                    this.metrics.written(batch.size(), bytes);
+                    unsynced += batch.size();
+                    batch.clear();
+                }
+                now = System.currentTimeMillis();
+                if (unsynced > 0 && now >= nextSync) {
+                    this.segment.force(false);
+                    written += unsynced;
+                    unsynced = 0;
+                    nextSync = now + this.syncIntervalMillis;
+                    this.metrics.synced();
+                    synchronized (this.syncLock) {
+                        this.synced = written;
+                        this.syncLock.notifyAll();
+                    }
+                }
+                if (unsynced == 0 && ! this.closed && needsSnapshot(now)) {
+                    rotate();
+                    long number = this.segmentNumber;
+                    this.snapshotter.execute(() -> snapshotQuietly(number));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.failure = new IOException("Journal writer interrupted");
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Journal failed, dir=[{}]", this.dir, e);
+            this.failure = (e instanceof IOException) ? (IOException) e : new IOException(e);
+        } finally {
+            synchronized (this.syncLock) {
+                this.syncLock.notifyAll();
+            }
+        }
+    }
+
+    private void flush(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            this.segment.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private boolean needsSnapshot(long now) throws IOException {
+        if (this.snapshotting.get() || this.segment.size() == 0) {
+            return false;
+        }
+        return this.segment.size() >= this.segmentBytes
+                || now - this.lastSnapshotMillis >= this.snapshotIntervalMillis;
+    }
+
+    /*
+     * Called by the writer thread, with everything written synced.
+     */
+    private void rotate() throws IOException {
+        this.snapshotting.set(true);
+        this.segment.close();
+        this.segmentNumber++;
+        this.segment = openSegment(this.segmentNumber);
+        this.lastSnapshotMillis = System.currentTimeMillis();
+    }
+
+    private void snapshotQuietly(long number) {
+        try {
+            writeSnapshot(number);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Cannot snapshot games to dir=[{}]", this.dir, e);
+        } finally {
+            this.snapshotting.set(false);
+        }
+    }
+
+    /*
+     * Writes "snapshot-N.bin" atomically, then deletes the older files.
+     */
+    private void writeSnapshot(long number) throws IOException {
+        long start = System.nanoTime();
+        Path tmp = this.dir.resolve(SNAPSHOT_PREFIX + name(number) + ".tmp");
+        long[] count = { 0 };
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER);
+            IOException[] error = { null };
+            this.games.accept(board -> {
+                if (error[0] != null) {
+                    return;
+                }
+                try {
+                    writeFrame(channel, buffer, encodeCreate(board));
+                    count[0]++;
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            });
+            if (error[0] != null) {
+                throw error[0];
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeByte(END);
+                out.writeLong(count[0]);
+            }
+            writeFrame(channel, buffer, frame(bytes));
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, this.dir.resolve(SNAPSHOT_PREFIX + name(number) + SNAPSHOT_SUFFIX),
+                StandardCopyOption.ATOMIC_MOVE);
+        deleteBefore(number);
+        this.metrics.snapshotTaken(count[0]);
+        LOG.info("Snapshot games=[{}] to segment=[{}] in {} ms", count[0], number,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static void writeFrame(FileChannel channel, ByteBuffer buffer, byte[] frame) throws IOException {
+        if (buffer.remaining() < frame.length) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        if (frame.length > buffer.capacity()) {
+            channel.write(ByteBuffer.wrap(frame));
+        } else {
+            buffer.put(frame);
+        }
+    }
+
+    /*
+     * Compaction: the snapshot `number` covers all the older files.
+     */
+    private void deleteBefore(long number) throws IOException {
+        for (Path path : list()) {
+            String file = path.getFileName().toString();
+            long n = number(file);
+            if (n >= 0 && n < number && (file.startsWith(SEGMENT_PREFIX) || file.endsWith(SNAPSHOT_SUFFIX))) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /*
+     * Loads the latest complete snapshot, replays the segments from it.
+     * Returns the number of the next segment.
+     */
+    private long recover(Map<String, GameGuessModel> games) throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        for (Path path : list()) {
+            String file = path.getFileName().toString();
+            long n = number(file);
+            if (n < 0) {
+                continue;
+            }
+            if (file.startsWith(SEGMENT_PREFIX) && file.endsWith(SEGMENT_SUFFIX)) {
+                segments.put(n, path);
+            } else if (file.startsWith(SNAPSHOT_PREFIX) && file.endsWith(SNAPSHOT_SUFFIX)) {
+                snapshots.put(n, path);
+            } else if (file.endsWith(".tmp")) {
+                Files.deleteIfExists(path);
+            }
+        }
+        // words repeat across games, share them
+        Map<String, String> words = new HashMap<>();
+        long from = 0;
+        for (Long n : snapshots.descendingKeySet()) {
+            Map<String, GameGuessModel> loaded = new HashMap<>();
+            if (replay(snapshots.get(n), loaded, words, true)) {
+                games.putAll(loaded);
+                from = n;
+                break;
+            }
+            LOG.warn("Ignored incomplete snapshot=[{}]", snapshots.get(n));
+        }
+        long next = Math.max(from, 1);
+        for (Map.Entry<Long, Path> entry : segments.tailMap(from, true).entrySet()) {
+            replay(entry.getValue(), games, words, false);
+            next = entry.getKey() + 1;
+        }
+        // left over by a crash during compaction
+        deleteBefore(from);
+        return next;
+    }
+
+    /*
+     * Applies the records of `path` to `games`, up to its end or a torn
+     * record. Returns true if an END record was read.
+     */
+    private static boolean replay(Path path, Map<String, GameGuessModel> games, Map<String, String> words,
+            boolean snapshot) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            CRC32 crc = new CRC32();
+            byte[] body = new byte[256];
+            while (true) {
+                int length;
+                int checksum;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                } catch (EOFException e) {
+                    return false;
+                }
+                if (length < 1 || length > MAX_BODY) {
+                    LOG.warn("Ignored torn journal tail of file=[{}]", path);
+                    return false;
+                }
+                if (body.length < length) {
+                    body = new byte[Math.max(length, body.length * 2)];
+                }
+                try {
+                    in.readFully(body, 0, length);
+                } catch (EOFException e) {
+                    LOG.warn("Ignored torn journal tail of file=[{}]", path);
+                    return false;
+                }
+                crc.reset();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    LOG.warn("Ignored torn journal tail of file=[{}]", path);
+                    return false;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(body, 0, length));
+                byte type = record.readByte();
+                if (type == END) {
+                    return snapshot && record.readLong() == games.size();
+                }
+                apply(type, record, games, words);
+            }
+        }
+    }
+
+    private static void apply(byte type, DataInputStream in, Map<String, GameGuessModel> games,
+            Map<String, String> words) throws IOException {
+        String id = in.readUTF();
+        switch (type) {
+        case CREATE:
+            GameGuessModel board = decodeCreate(id, in, words);
+            games.putIfAbsent(id, board);
+            break;
+        case GUESS:
+            long modifiedAt = in.readLong();
+            String word = in.readUTF();
+            GameGuessModel played = games.get(id);
+            if (played != null) {
+                played.getGameState().updateGuessWord(word);
+                played.updateModifiedAt(new Date(modifiedAt));
+            }
+            break;
+        case REMOVE:
+            games.remove(id);
+            break;
+        default:
+            throw new IOException("Invalid record type=[" + type + "]");
+        }
+    }
+
+    private static byte[] encodeCreate(GameGuessModel board) {
+        GameState state = board.getGameState();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CREATE);
+            out.writeUTF(board.getId());
+            out.writeLong(board.getCreatedAt().getTime());
+            out.writeLong(board.getModifiedAt().getTime());
+            out.writeUTF(state.getOriginal());
+            out.writeUTF(state.getScramble());
+            Map<String, Boolean> subWords = state.getSubWords();
+            out.writeInt(subWords.size());
+            byte[] guessed = new byte[(subWords.size() + 7) / 8];
+            int i = 0;
+            for (Map.Entry<String, Boolean> entry : subWords.entrySet()) {
+                out.writeUTF(entry.getKey());
+                if (entry.getValue() == Boolean.TRUE) {
+                    guessed[i >>> 3] |= (byte) (1 << (i & 7));
+                }
+                i++;
+            }
+            out.write(guessed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return frame(bytes);
+    }
+
+    private static GameGuessModel decodeCreate(String id, DataInputStream in, Map<String, String> words)
+            throws IOException {
+        long createdAt = in.readLong();
+        long modifiedAt = in.readLong();
+        String original = intern(words, in.readUTF());
+        String scramble = in.readUTF();
+        int count = in.readInt();
+        String[] subWords = new String[count];
+        for (int i = 0; i < count; i++) {
+            subWords[i] = intern(words, in.readUTF());
+        }
+        byte[] guessed = new byte[(count + 7) / 8];
+        in.readFully(guessed);
+        Map<String, Boolean> flags = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            flags.put(subWords[i], (guessed[i >>> 3] & (1 << (i & 7))) != 0);
+        }
+        GameGuessModel board = new GameGuessModel();
+        board.setId(id);
+        board.setCreatedAt(new Date(createdAt));
+        board.setModifiedAt(new Date(modifiedAt));
+        board.setGameState(new GameState(original, scramble, flags));
+        return board;
+    }
+
+    private static String intern(Map<String, String> words, String word) {
+        String shared = words.putIfAbsent(word, word);
+        return (shared == null) ? word : shared;
+    }
+
+    /*
+     * (body length, CRC32 of body, body)
+     */
+    private static byte[] frame(ByteArrayOutputStream body) {
+        byte[] bytes = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        ByteBuffer frame = ByteBuffer.allocate(8 + bytes.length);
+        frame.putInt(bytes.length);
+        frame.putInt((int) crc.getValue());
+        frame.put(bytes);
+        return frame.array();
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(this.dir.resolve(SEGMENT_PREFIX + name(number) + SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> list() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.dir)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    private static String name(long number) {
+        return String.format("%020d", number);
+    }
+
+    /*
+     * The number in "journal-N.log", "snapshot-N.bin" (or ".tmp"), or -1.
+     */
+    private static long number(String file) {
+        int start = file.indexOf('-');
+        int end = file.lastIndexOf('.');
+        if (start < 0 || end <= start + 1) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(file.substring(start + 1, end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+}
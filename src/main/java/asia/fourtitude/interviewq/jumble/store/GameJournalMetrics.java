@@ -0,0 +1,113 @@
+package asia.fourtitude.interviewq.jumble.store;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters of the journal behind {@link JournaledGameRepository}.
+ *
+ * - records / bytes: appended to the journal.
+ * - syncs: `fsync` of the journal, each commits a group of records.
+ * - pending: records queued, not written yet.
+ * - snapshots: snapshots taken, and the games in the last one.
+ * - recoveredGames / recoveryMillis: games rebuilt at start, and how long
+ *   it took (snapshot plus journal replay).
+ *
+ * Thread safe, and cheap to update from many threads.
+ */
+public final class GameJournalMetrics {
+
+    private final LongAdder records = new LongAdder();
+
+    private final LongAdder bytes = new LongAdder();
+
+    private final LongAdder syncs = new LongAdder();
+
+    private final LongAdder snapshots = new LongAdder();
+
+    private volatile long lastSnapshotGames;
+
+    private volatile long recoveredGames;
+
+    private volatile long recoveryMillis;
+
+    private volatile IntSupplier pending = () -> 0;
+
+    void journalOpened(IntSupplier pending) {
+        this.pending = pending;
+    }
+
+    void written(int records, long bytes) {
+        this.records.add(records);
+        this.bytes.add(bytes);
+    }
+
+    void synced() {
+        syncs.increment();
+    }
+
+    void snapshotTaken(long games) {
+        snapshots.increment();
+        lastSnapshotGames = games;
+    }
+
+    void recovered(long games, long millis) {
+        recoveredGames = games;
+        recoveryMillis = millis;
+    }
+
+    public long getRecords() {
+        return records.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getSyncs() {
+        return syncs.sum();
+    }
+
+    /**
+     * @return  The average number of records committed per `fsync`,
+     *          or 0 if none yet.
+     */
+    public double getRecordsPerSync() {
+        long syncs = getSyncs();
+        return syncs == 0 ? 0 : (double) getRecords() / syncs;
+    }
+
+    public int getPending() {
+        return pending.getAsInt();
+    }
+
+    public long getSnapshots() {
+        return snapshots.sum();
+    }
+
+    public long getLastSnapshotGames() {
+        return lastSnapshotGames;
+    }
+
+    public long getRecoveredGames() {
+        return recoveredGames;
+    }
+
+    public long getRecoveryMillis() {
+        return recoveryMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sb.length() == 0 ? "" : ", ").append("records=[").append(getRecords()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("bytes=[").append(getBytes()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("syncs=[").append(getSyncs()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("pending=[").append(getPending()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("snapshots=[").append(getSnapshots()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("recoveredGames=[").append(recoveredGames).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("recoveryMillis=[").append(recoveryMillis).append(']');
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,56 @@
+package asia.fourtitude.interviewq.jumble.store;
+
+import java.io.Closeable;
+import java.util.Collection;
+
+import asia.fourtitude.interviewq.jumble.model.GameGuessModel;
+
+/**
+ * Repository of the game boards, by their `id`.
+ *
+ * - {@link GameStore}: in memory only, with TTL.
+ * - {@link JournaledGameRepository}: same, and durable across restarts.
+ *
+ * Chosen by the "jumble.store.*" application properties (see "AppConfig").
+ */
+public interface GameRepository extends Closeable {
+
+    /**
+     * Adds (or replaces) a game board, by its `id`.
+     */
+    void put(GameGuessModel board);
+
+    /**
+     * Adds (or replaces) game boards, by their `id`, all at once.
+     */
+    void putAll(Collection<GameGuessModel> boards);
+
+    /**
+     * @return  The game board of `id`, or null if none (or expired).
+     */
+    GameGuessModel get(String id);
+
+    /**
+     * Records a play of a game board: `word` was guessed (correctly or
+     * not, may be null) and its `modifiedAt` updated. Does nothing if it
+     * is no longer in the repository.
+     */
+    void played(GameGuessModel board, String word);
+
+    /**
+     * @return  The game board removed, or null if none.
+     */
+    GameGuessModel remove(String id);
+
+    /**
+     * @return  The number of games held, some may be due to expire.
+     */
+    int size();
+
+    /**
+     * Releases the resources, without throwing.
+     */
+    @Override
+    void close();
+
+}
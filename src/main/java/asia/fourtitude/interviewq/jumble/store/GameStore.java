@@ -0,0 +1,329 @@
+package asia.fourtitude.interviewq.jumble.store;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import asia.fourtitude.interviewq.jumble.model.GameGuessModel;
+
+/**
+ * In-memory store of the game boards, by their `id`, which drops the
+ * abandoned ones so memory stays flat however many games are created.
+ *
+ * A game expires once idle for `idleTtl` after its `modifiedAt`, or
+ * `absoluteTtl` after its `createdAt`, whichever comes first. Beyond
+ * `maxSize` games, the ones closest to expiring (to within a bucket of
+ * the wheel) are evicted early, in O(1) each.
+ *
+ * The deadlines are kept on a {@link TimingWheel}, advanced every tick by
+ * a background thread, so expiring costs only the games due, never a scan
+ * of them all. Reads are lock free; writes to the wheel (put, remove,
+ * expire) take a single short lock. So does a touch, but only once its
+ * game moves to a later tick: further plays of it within that tick (eg:
+ * a burst of guesses) take no lock.
+ */
+public class GameStore implements GameRepository {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GameStore.class);
+
+    /*
+     * 64^4 ticks, ie: 194 days of 1 second ticks.
+     */
+    private static final int WHEEL_LEVELS = 4;
+
+    private final Map<String, Entry> games = new ConcurrentHashMap<>();
+
+    /*
+     * Guarded by itself, along with the `node` of every entry.
+     */
+    private final TimingWheel<Entry> wheel;
+
+    private final long tickMillis;
+
+    private final long idleTtlMillis;
+
+    private final long absoluteTtlMillis;
+
+    private final int maxSize;
+
+    private final LongSupplier clock;
+
+    /*
+     * Advances the wheel every tick, or null if driven by the caller.
+     */
+    private final ScheduledExecutorService reaper;
+
+    private final GameStoreMetrics metrics = new GameStoreMetrics();
+
+    /*
+     * Receives each game evicted past `maxSize`, during the put evicting
+     * it, with the wheel lock held.
+     */
+    private volatile Consumer<GameGuessModel> evictionListener = board -> { };
+
+    private static final class Entry {
+
+        final GameGuessModel board;
+
+        /*
+         * Set under the wheel lock, read without it by `touch`.
+         */
+        volatile TimingWheel.Node<Entry> node;
+
+        Entry(GameGuessModel board) {
+            this.board = board;
+        }
+
+    }
+
+    public GameStore() {
+        this(new GameStoreSettings());
+    }
+
+    /**
+     * Creates the store, and starts expiring its games in background.
+     *
+     * @param settings  The TTLs and maximum size.
+     */
+    public GameStore(GameStoreSettings settings) {
+        this(settings, System::currentTimeMillis, true);
+    }
+
+    GameStore(GameStoreSettings settings, LongSupplier clock, boolean startReaper) {
+        Objects.requireNonNull(settings, "settings must not be null");
+        this.tickMillis = settings.getTick().toMillis();
+        this.idleTtlMillis = settings.getIdleTtl().toMillis();
+        this.absoluteTtlMillis = settings.getAbsoluteTtl().toMillis();
+        this.maxSize = settings.getMaxSize();
+        if (this.tickMillis < 1) {
+            throw new IllegalArgumentException("Invalid tick=[" + settings.getTick() + "], expect at least 1ms");
+        }
+        if (this.idleTtlMillis < 1 || this.absoluteTtlMillis < 1) {
+            throw new IllegalArgumentException("Invalid idleTtl=[" + settings.getIdleTtl()
+                    + "], absoluteTtl=[" + settings.getAbsoluteTtl() + "], expect positive durations");
+        }
+        if (this.maxSize < 1) {
+            throw new IllegalArgumentException("Invalid maxSize=[" + this.maxSize + "], expect positive integer");
+        }
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(WHEEL_LEVELS, clock.getAsLong() / this.tickMillis);
+        this.metrics.storeCreated(this.games::size);
+        if (startReaper) {
+            this.reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "jumble-game-store-reaper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.reaper.scheduleWithFixedDelay(this::expire, this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.reaper = null;
+        }
+    }
+
+    @Override
+    public void put(GameGuessModel board) {
+        putAll(Collections.singletonList(board));
+    }
+
+    @Override
+    public void putAll(Collection<GameGuessModel> boards) {
+        long now = this.clock.getAsLong();
+        synchronized (this.wheel) {
+            for (GameGuessModel board : boards) {
+                Objects.requireNonNull(board.getId(), "board.id must not be null");
+                if (board.getCreatedAt() == null) {
+                    board.setCreatedAt(new Date(now));
+                }
+                if (board.getModifiedAt() == null) {
+                    board.setModifiedAt(board.getCreatedAt());
+                }
+                Entry entry = new Entry(board);
+                Entry previous = this.games.put(board.getId(), entry);
+                if (previous != null) {
+                    this.wheel.cancel(previous.node);
+                }
+                entry.node = this.wheel.schedule(entry, deadlineTick(board, now));
+            }
+            evictOverflow();
+        }
+        this.metrics.added(boards.size());
+    }
+
+    @Override
+    public GameGuessModel get(String id) {
+        if (id == null) {
+            return null;
+        }
+        Entry entry = this.games.get(id);
+        if (entry == null) {
+            return null;
+        }
+        long now = this.clock.getAsLong();
+        if (deadline(entry.board, now) <= now) {
+            // due, but the reaper has not got to it yet
+            synchronized (this.wheel) {
+                if (this.games.remove(id, entry)) {
+                    this.wheel.cancel(entry.node);
+                    this.metrics.expired();
+                }
+            }
+            return null;
+        }
+        return entry.board;
+    }
+
+    /**
+     * Counts the guess (correct if `word` is not null), and pushes back
+     * the expiry of the game board played.
+     */
+    @Override
+    public void played(GameGuessModel board, String word) {
+        this.metrics.played(word != null);
+        touch(board);
+    }
+
+    /**
+     * Pushes back the expiry of a game board, after its `modifiedAt` was
+     * updated. Does nothing if it is no longer in the store.
+     */
+    public void touch(GameGuessModel board) {
+        long now = this.clock.getAsLong();
+        long tick = deadlineTick(board, now);
+        Entry entry = this.games.get(board.getId());
+        if (entry == null || entry.board != board) {
+            return;
+        }
+        TimingWheel.Node<Entry> node = entry.node;
+        if (node != null && node.deadlineTick == tick) {
+            // already due then, as for the plays within a tick
+            return;
+        }
+        synchronized (this.wheel) {
+            if (this.games.get(board.getId()) == entry && entry.node.deadlineTick != tick) {
+                this.wheel.reschedule(entry.node, tick);
+            }
+        }
+    }
+
+    @Override
+    public GameGuessModel remove(String id) {
+        synchronized (this.wheel) {
+            Entry entry = this.games.remove(id);
+            if (entry == null) {
+                return null;
+            }
+            this.wheel.cancel(entry.node);
+            this.metrics.removed();
+            return entry.board;
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.games.size();
+    }
+
+    public GameStoreMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Sets what receives each game board evicted past `maxSize`. Called by
+     * the thread of the put evicting it, with the store locked, so must be
+     * quick and must not call the store.
+     */
+    void setEvictionListener(Consumer<GameGuessModel> listener) {
+        this.evictionListener = Objects.requireNonNull(listener, "listener must not be null");
+    }
+
+    /**
+     * Calls `action` with every game board held, as the store changes.
+     */
+    void forEach(Consumer<GameGuessModel> action) {
+        for (Entry entry : this.games.values()) {
+            action.accept(entry.board);
+        }
+    }
+
+    /**
+     * Expires the games due by now. Run every tick by the background
+     * thread.
+     */
+    void expire() {
+        try {
+            long now = this.clock.getAsLong();
+            synchronized (this.wheel) {
+                this.wheel.advance(now / this.tickMillis, entry -> {
+                    long tick = deadlineTick(entry.board, now);
+                    if (tick > this.wheel.currentTick()) {
+                        // modified without a touch, still in use
+                        this.wheel.reschedule(entry.node, tick);
+                    } else if (this.games.remove(entry.board.getId(), entry)) {
+                        this.metrics.expired();
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Cannot expire games", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (this.reaper != null) {
+            this.reaper.shutdownNow();
+        }
+    }
+
+    /*
+     * Called with the wheel lock held.
+     */
+    private void evictOverflow() {
+        while (this.wheel.size() > this.maxSize) {
+            TimingWheel.Node<Entry> node = this.wheel.earliest();
+            if (node == null) {
+                return;
+            }
+            this.wheel.cancel(node);
+            if (this.games.remove(node.item.board.getId(), node.item)) {
+                this.metrics.evicted();
+                this.evictionListener.accept(node.item.board);
+            }
+        }
+    }
+
+    private long deadlineTick(GameGuessModel board, long now) {
+        // rounded up, so never expires early
+        return (deadline(board, now) + this.tickMillis - 1) / this.tickMillis;
+    }
+
+    private long deadline(GameGuessModel board, long now) {
+        long modifiedAt = millis(board.getModifiedAt(), now);
+        long createdAt = millis(board.getCreatedAt(), modifiedAt);
+        return Math.min(modifiedAt + this.idleTtlMillis, createdAt + this.absoluteTtlMillis);
+    }
+
+    private static long millis(Date date, long orElse) {
+        return (date == null) ? orElse : date.getTime();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sb.length() == 0 ? "" : ", ").append("size=[").append(size()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("metrics=[").append(this.metrics).append(']');
+        return sb.toString();
+    }
+
+}
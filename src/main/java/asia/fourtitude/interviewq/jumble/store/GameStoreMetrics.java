@@ -0,0 +1,100 @@
+package asia.fourtitude.interviewq.jumble.store;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters of {@link GameStore}.
+ *
+ * - live: games held right now.
+ * - added: games put into the store.
+ * - expired: games dropped for being idle (`modifiedAt`) or too old
+ *   (`createdAt`) past their TTL.
+ * - evicted: games dropped early to stay within the maximum size.
+ * - removed: games removed by callers.
+ * - correctGuesses, wrongGuesses: guesses played on the games.
+ *
+ * Thread safe, and cheap to update from many threads.
+ */
+public final class GameStoreMetrics {
+
+    private final LongAdder added = new LongAdder();
+
+    private final LongAdder expired = new LongAdder();
+
+    private final LongAdder evicted = new LongAdder();
+
+    private final LongAdder removed = new LongAdder();
+
+    private final LongAdder correctGuesses = new LongAdder();
+
+    private final LongAdder wrongGuesses = new LongAdder();
+
+    private volatile IntSupplier live = () -> 0;
+
+    void storeCreated(IntSupplier live) {
+        this.live = live;
+    }
+
+    void added(int count) {
+        added.add(count);
+    }
+
+    void expired() {
+        expired.increment();
+    }
+
+    void evicted() {
+        evicted.increment();
+    }
+
+    void removed() {
+        removed.increment();
+    }
+
+    void played(boolean correct) {
+        (correct ? correctGuesses : wrongGuesses).increment();
+    }
+
+    public int getLive() {
+        return live.getAsInt();
+    }
+
+    public long getAdded() {
+        return added.sum();
+    }
+
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    public long getRemoved() {
+        return removed.sum();
+    }
+
+    public long getCorrectGuesses() {
+        return correctGuesses.sum();
+    }
+
+    public long getWrongGuesses() {
+        return wrongGuesses.sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sb.length() == 0 ? "" : ", ").append("live=[").append(getLive()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("added=[").append(getAdded()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("expired=[").append(getExpired()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("evicted=[").append(getEvicted()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("removed=[").append(getRemoved()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("correctGuesses=[").append(getCorrectGuesses()).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("wrongGuesses=[").append(getWrongGuesses()).append(']');
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,153 @@
+package asia.fourtitude.interviewq.jumble.store;
+
+import java.time.Duration;
+
+/**
+ * Limits of {@link GameStore}. Bound from the "jumble.store.*"
+ * application properties (see "AppConfig").
+ */
+public class GameStoreSettings {
+
+    private Duration idleTtl = Duration.ofMinutes(30);
+
+    private Duration absoluteTtl = Duration.ofHours(24);
+
+    private int maxSize = 100_000;
+
+    private Duration tick = Duration.ofSeconds(1);
+
+    /*
+     * Durable journal, see `JournaledGameRepository`.
+     */
+    private String journalDir;
+
+    private Duration journalSyncInterval = Duration.ofMillis(10);
+
+    private boolean journalSyncWait = false;
+
+    private long journalSegmentBytes = 64L * 1024 * 1024;
+
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+
+    /**
+     * @return  How long a game is kept after its last play (`modifiedAt`).
+     */
+    public Duration getIdleTtl() {
+        return idleTtl;
+    }
+
+    public void setIdleTtl(Duration idleTtl) {
+        this.idleTtl = idleTtl;
+    }
+
+    /**
+     * @return  How long a game is kept after its creation (`createdAt`),
+     *          however often it is played.
+     */
+    public Duration getAbsoluteTtl() {
+        return absoluteTtl;
+    }
+
+    public void setAbsoluteTtl(Duration absoluteTtl) {
+        this.absoluteTtl = absoluteTtl;
+    }
+
+    /**
+     * @return  The maximum number of games kept. Beyond it, the games
+     *          closest to expiring are evicted first.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return  The resolution of the expiry, games expire up to one tick late.
+     */
+    public Duration getTick() {
+        return tick;
+    }
+
+    public void setTick(Duration tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * @return  The directory of the journal and snapshots, to keep the
+     *          games across restarts. Or null / empty (default) for in
+     *          memory only.
+     */
+    public String getJournalDir() {
+        return journalDir;
+    }
+
+    public void setJournalDir(String journalDir) {
+        this.journalDir = journalDir;
+    }
+
+    /**
+     * @return  The minimum time between two `fsync` of the journal. All
+     *          the records written in between are committed together.
+     */
+    public Duration getJournalSyncInterval() {
+        return journalSyncInterval;
+    }
+
+    public void setJournalSyncInterval(Duration journalSyncInterval) {
+        this.journalSyncInterval = journalSyncInterval;
+    }
+
+    /**
+     * @return  true for every write to wait until its record is synced to
+     *          disk. Or false (default) to return once queued, at the risk
+     *          of losing up to `journalSyncInterval` of plays on a crash.
+     */
+    public boolean isJournalSyncWait() {
+        return journalSyncWait;
+    }
+
+    public void setJournalSyncWait(boolean journalSyncWait) {
+        this.journalSyncWait = journalSyncWait;
+    }
+
+    /**
+     * @return  The size (in bytes) past which the journal starts a new
+     *          segment and takes a snapshot.
+     */
+    public long getJournalSegmentBytes() {
+        return journalSegmentBytes;
+    }
+
+    public void setJournalSegmentBytes(long journalSegmentBytes) {
+        this.journalSegmentBytes = journalSegmentBytes;
+    }
+
+    /**
+     * @return  The maximum time between two snapshots, each compacts the
+     *          journal written before it.
+     */
+    public Duration getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(Duration snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sb.length() == 0 ? "" : ", ").append("idleTtl=[").append(idleTtl).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("absoluteTtl=[").append(absoluteTtl).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("maxSize=[").append(maxSize).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("tick=[").append(tick).append(']');
+        if (journalDir != null) {
+            sb.append(sb.length() == 0 ? "" : ", ").append("journalDir=[").append(journalDir).append(']');
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,173 @@
+package asia.fourtitude.interviewq.jumble.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import asia.fourtitude.interviewq.jumble.model.GameGuessModel;
+
+/**
+ * Game repository kept in a {@link GameStore} (so with its TTL), and
+ * durable across restarts (and crashes) by a journal on local disk.
+ *
+ * Every creation, guess and removal is appended to the journal, as a
+ * compact record, once applied in memory. By default a write returns once
+ * its record is queued, and the records are synced to disk together every
+ * `journalSyncInterval` (group commit): so a guess stays in the order of
+ * micro seconds, and a crash loses at most the last interval of plays.
+ * With `journalSyncWait`, a write waits for its sync instead.
+ *
+ * On start, the games are rebuilt from the latest snapshot plus the
+ * journal written after it. Games which expired meanwhile are dropped by
+ * the store as usual (expiry is not journaled, snapshots leave them out).
+ * Games evicted past `maxSize` are journaled as removed instead, as the
+ * replay cannot tell them apart from the games kept.
+ */
+public class JournaledGameRepository implements GameRepository {
+
+    private final GameStore store;
+
+    private final GameJournal journal;
+
+    private final boolean syncWait;
+
+    private final GameJournalMetrics journalMetrics = new GameJournalMetrics();
+
+    /*
+     * Serializes the puts with their records, so the games a put evicts
+     * are journaled as removed after its own creates (which may be them).
+     */
+    private final Object putLock = new Object();
+
+    /*
+     * The games evicted by the put in progress, guarded by `putLock`.
+     */
+    private final List<GameGuessModel> evicted = new ArrayList<>();
+
+    /**
+     * Opens the journal in `settings.journalDir`, and recovers its games.
+     *
+     * @throws UncheckedIOException  If the journal cannot be read / written.
+     */
+    public JournaledGameRepository(GameStoreSettings settings) {
+        this(settings, new GameStore(settings));
+    }
+
+    JournaledGameRepository(GameStoreSettings settings, GameStore store) {
+        Objects.requireNonNull(settings.getJournalDir(), "settings.journalDir must not be null");
+        Path dir = Paths.get(settings.getJournalDir());
+        this.store = store;
+        this.syncWait = settings.isJournalSyncWait();
+        Map<String, GameGuessModel> recovered = new HashMap<>();
+        try {
+            this.journal = new GameJournal(dir, settings, store::forEach, recovered, this.journalMetrics);
+        } catch (IOException e) {
+            store.close();
+            throw new UncheckedIOException("Cannot open journal dir=[" + dir + "]", e);
+        }
+        store.setEvictionListener(this.evicted::add);
+        synchronized (this.putLock) {
+            // past `maxSize` (eg: lowered since), evicted as removed, their creates are in already
+            store.putAll(recovered.values());
+            appendEvicted();
+        }
+    }
+
+    @Override
+    public void put(GameGuessModel board) {
+        putAll(Collections.singletonList(board));
+    }
+
+    @Override
+    public void putAll(Collection<GameGuessModel> boards) {
+        long sequence = 0;
+        synchronized (this.putLock) {
+            this.store.putAll(boards);
+            for (GameGuessModel board : boards) {
+                sequence = this.journal.appendCreate(board);
+            }
+            sequence = Math.max(sequence, appendEvicted());
+        }
+        commit(sequence);
+    }
+
+    @Override
+    public GameGuessModel get(String id) {
+        return this.store.get(id);
+    }
+
+    @Override
+    public void played(GameGuessModel board, String word) {
+        this.store.played(board, word);
+        commit(this.journal.appendGuess(board, word));
+    }
+
+    @Override
+    public GameGuessModel remove(String id) {
+        GameGuessModel board = this.store.remove(id);
+        if (board != null) {
+            commit(this.journal.appendRemove(id));
+        }
+        return board;
+    }
+
+    @Override
+    public int size() {
+        return this.store.size();
+    }
+
+    public GameStoreMetrics getMetrics() {
+        return this.store.getMetrics();
+    }
+
+    public GameJournalMetrics getJournalMetrics() {
+        return this.journalMetrics;
+    }
+
+    /**
+     * Syncs the journal (all the writes so far are durable after), and
+     * stops the background threads.
+     */
+    @Override
+    public void close() {
+        this.journal.close();
+        this.store.close();
+    }
+
+    /*
+     * Called with `putLock` held.
+     *
+     * @return  The sequence of the last remove, or 0 if none evicted.
+     */
+    private long appendEvicted() {
+        long sequence = 0;
+        for (GameGuessModel board : this.evicted) {
+            sequence = this.journal.appendRemove(board.getId());
+        }
+        this.evicted.clear();
+        return sequence;
+    }
+
+    private void commit(long sequence) {
+        if (this.syncWait && sequence > 0) {
+            this.journal.awaitSynced(sequence);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sb.length() == 0 ? "" : ", ").append("store=[").append(this.store).append(']');
+        sb.append(sb.length() == 0 ? "" : ", ").append("journal=[").append(this.journalMetrics).append(']');
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,241 @@
+package asia.fourtitude.interviewq.jumble.store;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: schedules items to expire at a tick, in O(1)
+ * per schedule / cancel, and O(1) amortized per tick, instead of scanning
+ * all the items periodically.
+ *
+ * Level 0 has one bucket per tick, each level above has buckets
+ * {@value #SLOTS} times coarser. An item goes into the level whose span
+ * covers its deadline, and moves down a level ("cascades") when the wheel
+ * reaches its bucket, until it lands on its exact tick in level 0. Items
+ * beyond the span of the top level are parked in its farthest bucket and
+ * placed again when they get there. Each bucket is a FIFO, and each level
+ * keeps a bitmap of its non empty buckets, so the soonest bucket is found
+ * without looking at the empty ones.
+ *
+ * Not thread safe, callers serialize all access.
+ *
+ * @param <T>  The type of the items.
+ */
+final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+
+    static final int SLOTS = 1 << SLOT_BITS;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /*
+     * Sentinels of the circular doubly linked buckets, by level then slot.
+     */
+    private final Node<T>[][] buckets;
+
+    /*
+     * Bit `slot` of `occupied[level]` is set when that bucket is not empty.
+     */
+    private final long[] occupied;
+
+    private final int levels;
+
+    /*
+     * The last tick expired.
+     */
+    private long currentTick;
+
+    private int size;
+
+    /**
+     * A scheduled item, to cancel or reschedule it.
+     */
+    static final class Node<T> {
+
+        final T item;
+
+        /*
+         * Written by the (serialized) callers of the wheel, volatile so it
+         * can be checked outside of their lock (eg: "GameStore#touch").
+         */
+        volatile long deadlineTick;
+
+        Node<T> prev;
+
+        Node<T> next;
+
+        /*
+         * The bucket holding this node, as `level << SLOT_BITS | slot`.
+         */
+        int bucket;
+
+        Node(T item) {
+            this.item = item;
+        }
+
+        boolean isScheduled() {
+            return next != null;
+        }
+
+    }
+
+    /**
+     * @param levels     The number of levels, spanning `64^levels` ticks.
+     * @param startTick  The current tick.
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(int levels, long startTick) {
+        if (levels < 1 || levels > 8) {
+            throw new IllegalArgumentException("Invalid levels=[" + levels + "], expect 1 to 8");
+        }
+        this.levels = levels;
+        this.buckets = new Node[levels][SLOTS];
+        this.occupied = new long[levels];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Node<T> sentinel = new Node<>(null);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                this.buckets[level][slot] = sentinel;
+            }
+        }
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Schedules `item` to expire at `deadlineTick`, or on the next tick if
+     * already due.
+     */
+    Node<T> schedule(T item, long deadlineTick) {
+        Node<T> node = new Node<>(item);
+        reschedule(node, deadlineTick);
+        return node;
+    }
+
+    /**
+     * Moves a (scheduled or cancelled) node to expire at `deadlineTick`.
+     */
+    void reschedule(Node<T> node, long deadlineTick) {
+        if (node.isScheduled()) {
+            unlink(node);
+        }
+        node.deadlineTick = deadlineTick;
+        // the current tick is already expired
+        place(node, 1);
+    }
+
+    void cancel(Node<T> node) {
+        if (node.isScheduled()) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * Expires all the items due up to `nowTick` (inclusive), in tick order.
+     *
+     * @param expired  Receives each expired item, its node already removed.
+     */
+    void advance(long nowTick, Consumer<? super T> expired) {
+        while (currentTick < nowTick) {
+            currentTick++;
+            // cascade the coarser buckets starting now, top most first
+            for (int level = levels - 1; level > 0; level--) {
+                int shift = SLOT_BITS * level;
+                if ((currentTick & ((1L << shift) - 1)) == 0) {
+                    replaceAll(level, (int) (currentTick >>> shift) & SLOT_MASK);
+                }
+            }
+            Node<T> bucket = buckets[0][(int) currentTick & SLOT_MASK];
+            while (bucket.next != bucket) {
+                Node<T> node = bucket.next;
+                unlink(node);
+                if (node.deadlineTick > currentTick) {
+                    // parked beyond the span, not due yet
+                    place(node, 1);
+                } else {
+                    expired.accept(node.item);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return  The node due the soonest, or null if none. In O(1), as the
+     *          first placed in the soonest bucket of the lowest non empty
+     *          level, so may miss by less than a bucket of the level above.
+     */
+    Node<T> earliest() {
+        for (int level = 0; level < levels; level++) {
+            if (occupied[level] == 0) {
+                continue;
+            }
+            // the buckets after the current one, in the order they come
+            int from = (int) ((currentTick >>> (SLOT_BITS * level)) + 1) & SLOT_MASK;
+            int slot = (from + Long.numberOfTrailingZeros(Long.rotateRight(occupied[level], from))) & SLOT_MASK;
+            return buckets[level][slot].next;
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    private void replaceAll(int level, int slot) {
+        Node<T> bucket = buckets[level][slot];
+        Node<T> node = bucket.next;
+        // detach the whole list first, `place()` may put nodes back here
+        bucket.next = bucket;
+        bucket.prev = bucket;
+        occupied[level] &= ~(1L << slot);
+        while (node != bucket) {
+            Node<T> next = node.next;
+            node.prev = null;
+            node.next = null;
+            size--;
+            // called before expiring the current tick, so may land on it
+            place(node, 0);
+            node = next;
+        }
+    }
+
+    private void place(Node<T> node, long minDelta) {
+        long delta = Math.max(minDelta, node.deadlineTick - currentTick);
+        long tick = currentTick + delta;
+        int level = 0;
+        while (level < levels - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        long span = 1L << (SLOT_BITS * levels);
+        if (delta >= span) {
+            // beyond the top level, park in its farthest bucket
+            tick = currentTick + span - 1;
+        }
+        int slot = (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+        Node<T> bucket = buckets[level][slot];
+        node.bucket = level << SLOT_BITS | slot;
+        occupied[level] |= 1L << slot;
+        node.prev = bucket.prev;
+        node.next = bucket;
+        bucket.prev.next = node;
+        bucket.prev = node;
+        size++;
+    }
+
+    private void unlink(Node<T> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        if (node.prev == node.next) {
+            // only the sentinel left
+            occupied[node.bucket >>> SLOT_BITS] &= ~(1L << (node.bucket & SLOT_MASK));
+        }
+        node.prev = null;
+        node.next = null;
+        size--;
+    }
+
+}
@@ -0,0 +1,93 @@
+package asia.fourtitude.interviewq.jumble;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import asia.fourtitude.interviewq.jumble.core.JumbleEngine;
+import asia.fourtitude.interviewq.jumble.model.GameGuessInput;
+import asia.fourtitude.interviewq.jumble.model.GameGuessOutput;
+import asia.fourtitude.interviewq.jumble.store.GameRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricsConfigTest {
+
+    static final ObjectMapper OM = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private JumbleEngine jumbleEngine;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    private long engineCalls(String method) {
+        Timer timer = this.registry.find("jumble.engine").tag("method", method).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double guesses(String result) {
+        FunctionCounter counter = this.registry.find("jumble.games.guesses").tag("result", result).functionCounter();
+        assertNotNull(counter, "jumble.games.guesses " + result);
+        return counter.count();
+    }
+
+    private void guess(String id, String word) throws Exception {
+        GameGuessInput input = new GameGuessInput();
+        input.setId(id);
+        input.setWord(word);
+        this.mvc.perform(post("/api/game/guess")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(OM.writeValueAsString(input)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void givenEngineCalls_thenTimedByMethod() {
+        long before = engineCalls("exists");
+        this.jumbleEngine.exists("word");
+        this.jumbleEngine.exists("notaword");
+        assertEquals(before + 2, engineCalls("exists"), "jumble.engine exists");
+    }
+
+    @Test
+    void givenGuesses_thenCountedByResult() throws Exception {
+        MvcResult result = this.mvc.perform(get("/api/game/new"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String id = OM.readValue(result.getResponse().getContentAsString(), GameGuessOutput.class).getId();
+        String word = this.gameRepository.get(id).getGameState().getSubWords().keySet().iterator().next();
+
+        double correct = guesses("correct");
+        double wrong = guesses("wrong");
+        guess(id, word);
+        guess(id, "zzzzzz");
+        guess(id, "qqqqqq");
+
+        assertEquals(correct + 1, guesses("correct"), 0.0, "correct");
+        assertEquals(wrong + 2, guesses("wrong"), 0.0, "wrong");
+        assertNotNull(this.registry.find("http.server.requests").tag("uri", "/api/game/guess").timer(),
+                "http.server.requests /api/game/guess");
+        assertNotNull(this.registry.find("jumble.games.live").gauge(), "jumble.games.live");
+    }
+
+}
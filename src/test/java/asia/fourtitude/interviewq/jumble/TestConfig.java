@@ -3,7 +3,10 @@ package asia.fourtitude.interviewq.jumble;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 
+import asia.fourtitude.interviewq.jumble.controller.AsyncSettings;
+import asia.fourtitude.interviewq.jumble.controller.EngineExecutor;
 import asia.fourtitude.interviewq.jumble.core.JumbleEngine;
+import asia.fourtitude.interviewq.jumble.store.GameStore;
 
 @TestConfiguration
 public class TestConfig {
@@ -13,4 +16,14 @@ public class TestConfig {
         return new JumbleEngine();
     }
 
+    @Bean
+    public GameStore gameStore() {
+        return new GameStore();
+    }
+
+    @Bean
+    public EngineExecutor engineExecutor() {
+        return new EngineExecutor(new AsyncSettings());
+    }
+
 }
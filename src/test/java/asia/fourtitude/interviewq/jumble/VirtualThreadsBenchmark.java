@@ -0,0 +1,72 @@
+package asia.fourtitude.interviewq.jumble;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import asia.fourtitude.interviewq.jumble.core.JumbleEngine;
+
+/**
+ * Compares the request threads of the embedded Tomcat before (its default
+ * pool of 200 platform threads) and after (a virtual thread per request,
+ * see "jumble.virtual-threads.enabled") under many concurrent requests
+ * which mostly wait (eg: slow clients, a synced journal, a downstream
+ * call), and a bit of engine work each. Reports the elapsed time, the
+ * throughput and the peak number of platform threads. Not a unit test,
+ * run by hand on Java 21+:
+ *
+ *     mvn -P java21 test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *         -Dexec.args="-cp %classpath asia.fourtitude.interviewq.jumble.VirtualThreadsBenchmark"
+ */
+public class VirtualThreadsBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    private static final int REQUESTS = 10_000;
+
+    private static final long WAIT_MILLIS = 100;
+
+    public static void main(String[] args) throws InterruptedException {
+        try (JumbleEngine engine = new JumbleEngine()) {
+            // warm up
+            run("warmup", Executors.newFixedThreadPool(TOMCAT_MAX_THREADS), engine, 1_000);
+            run("platform", Executors.newFixedThreadPool(TOMCAT_MAX_THREADS), engine, REQUESTS);
+            if (VirtualThreads.isSupported()) {
+                run("virtual", VirtualThreads.perTaskExecutor("tomcat-handler-"), engine, REQUESTS);
+            } else {
+                System.out.printf("virtual: not supported by java.version=%s%n", System.getProperty("java.version"));
+            }
+        }
+    }
+
+    private static void run(String name, ExecutorService executor, JumbleEngine engine, int requests)
+            throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        CountDownLatch done = new CountDownLatch(requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(WAIT_MILLIS);
+                    engine.exists("scramble");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        System.out.printf("%s: requests=%d, elapsed=%dms, throughput=%.0f req/s, peakPlatformThreads=%d%n",
+                name, requests, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                requests * 1e9 / elapsed, threads.getPeakThreadCount());
+    }
+
+}
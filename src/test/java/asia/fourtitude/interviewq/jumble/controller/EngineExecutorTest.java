@@ -0,0 +1,78 @@
+package asia.fourtitude.interviewq.jumble.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+class EngineExecutorTest {
+
+    private static EngineExecutor newExecutor(int threads, int queueCapacity) {
+        AsyncSettings settings = new AsyncSettings();
+        settings.setEngineThreads(threads);
+        settings.setEngineQueueCapacity(queueCapacity);
+        settings.setEngineTimeout(Duration.ofSeconds(10));
+        return new EngineExecutor(settings);
+    }
+
+    private static Object await(DeferredResult<?> result) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (! result.hasResult() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        return result.getResult();
+    }
+
+    @Test
+    void givenTask_whenSubmit_thenResultFromEnginePool() throws Exception {
+        try (EngineExecutor executor = newExecutor(2, 10)) {
+            DeferredResult<String> result = executor.submit(
+                    () -> Thread.currentThread().getName(), () -> "fallback");
+            assertTrue(((String) await(result)).startsWith("jumble-engine-"), "thread");
+            assertEquals(1, executor.getCompleted(), "completed");
+        }
+    }
+
+    @Test
+    void givenQueueFull_whenSubmit_thenFallbackRightAway() throws Exception {
+        try (EngineExecutor executor = newExecutor(1, 1)) {
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            DeferredResult<String> busy = executor.submit(() -> {
+                running.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "busy";
+            }, () -> "fallback");
+            assertTrue(running.await(10, TimeUnit.SECONDS), "running");
+            DeferredResult<String> queued = executor.submit(() -> "queued", () -> "fallback");
+
+            DeferredResult<String> rejected = executor.submit(() -> "rejected", () -> "fallback");
+            assertTrue(rejected.hasResult(), "rejected right away");
+            assertEquals("fallback", rejected.getResult(), "rejected");
+            assertEquals(1, executor.getRejected(), "rejected count");
+
+            release.countDown();
+            assertEquals("busy", await(busy), "busy");
+            assertEquals("queued", await(queued), "queued");
+        }
+    }
+
+    @Test
+    void givenTaskThrows_whenSubmit_thenErrorResult() throws Exception {
+        try (EngineExecutor executor = newExecutor(1, 1)) {
+            DeferredResult<String> result = executor.submit(() -> {
+                throw new IllegalArgumentException("Invalid");
+            }, () -> "fallback");
+            assertTrue(await(result) instanceof IllegalArgumentException, "error");
+        }
+    }
+
+}
@@ -1,17 +1,31 @@
 package asia.fourtitude.interviewq.jumble.controller;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import asia.fourtitude.interviewq.jumble.TestConfig;
 import asia.fourtitude.interviewq.jumble.core.JumbleEngine;
+import asia.fourtitude.interviewq.jumble.model.GameGuessInput;
+import asia.fourtitude.interviewq.jumble.model.GameGuessOutput;
+import asia.fourtitude.interviewq.jumble.store.GameStore;
 
 @WebMvcTest(GameApiController.class)
 @Import(TestConfig.class)
@@ -25,6 +39,29 @@ class GameApiControllerTest {
     @Autowired
     JumbleEngine jumbleEngine;
 
+    @Autowired
+    GameStore gameStore;
+
+    private GameGuessOutput newGame() throws Exception {
+        MvcResult result = this.mvc.perform(get("/api/game/new"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return OM.readValue(result.getResponse().getContentAsString(), GameGuessOutput.class);
+    }
+
+    private GameGuessOutput guess(GameGuessInput input, ResultMatcher expectStatus) throws Exception {
+        MvcResult result = this.mvc.perform(post("/api/game/guess")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(OM.writeValueAsString(input)))
+                .andExpect(expectStatus)
+                .andReturn();
+        return OM.readValue(result.getResponse().getContentAsString(), GameGuessOutput.class);
+    }
+
+    private List<String> correctWords(String id) {
+        return new ArrayList<>(this.gameStore.get(id).getGameState().getSubWords().keySet());
+    }
+
     /*
      * NOTE: Refer to "RootControllerTest.java", "GameWebControllerTest.java"
      * as reference. Search internet for resource/tutorial/help in implementing
@@ -54,7 +91,29 @@ class GameApiControllerTest {
          * g) `remainingWords` > 0 and same as `totalWords`
          * h) `guessedWords` is empty list
          */
-        assertTrue(false, "to be implemented");
+        GameGuessOutput output = newGame();
+        assertEquals("Created new game.", output.getResult(), "result");
+        assertNotNull(output.getId(), "id");
+        assertNotNull(output.getOriginalWord(), "originalWord");
+        assertNotNull(output.getScrambleWord(), "scrambleWord");
+        assertTrue(output.getTotalWords() > 0, "totalWords > 0");
+        assertEquals(output.getTotalWords(), output.getRemainingWords(), "remainingWords");
+        assertTrue(output.getGuessedWords().isEmpty(), "guessedWords.isEmpty");
+    }
+
+    @Test
+    void whenCreateNewGameAsync_thenSuccess() throws Exception {
+        MvcResult started = this.mvc.perform(get("/api/game/new/async"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = this.mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+        GameGuessOutput output = OM.readValue(result.getResponse().getContentAsString(), GameGuessOutput.class);
+        assertEquals("Created new game.", output.getResult(), "result");
+        assertNotNull(this.gameStore.get(output.getId()), "registered");
+        assertTrue(output.getTotalWords() > 0, "totalWords > 0");
+        assertEquals(output.getTotalWords(), output.getRemainingWords(), "remainingWords");
     }
 
     @Test
@@ -70,7 +129,10 @@ class GameApiControllerTest {
          * a) HTTP status == 404
          * b) `result` equals "Invalid Game ID."
          */
-        assertTrue(false, "to be implemented");
+        GameGuessInput input = new GameGuessInput();
+        input.setWord("answer");
+        GameGuessOutput output = guess(input, status().isNotFound());
+        assertEquals("Invalid Game ID.", output.getResult(), "result");
     }
 
     @Test
@@ -86,7 +148,11 @@ class GameApiControllerTest {
          * a) HTTP status == 404
          * b) `result` equals "Game board/state not found."
          */
-        assertTrue(false, "to be implemented");
+        GameGuessInput input = new GameGuessInput();
+        input.setId(UUID.randomUUID().toString());
+        input.setWord("answer");
+        GameGuessOutput output = guess(input, status().isNotFound());
+        assertEquals("Game board/state not found.", output.getResult(), "result");
     }
 
     @Test
@@ -112,7 +178,18 @@ class GameApiControllerTest {
          * h) `remainingWords` is equals to `remainingWords` of previous game state (no change)
          * i) `guessedWords` is empty list (because this is first attempt)
          */
-        assertTrue(false, "to be implemented");
+        GameGuessOutput game = newGame();
+        GameGuessInput input = new GameGuessInput();
+        input.setId(game.getId());
+        GameGuessOutput output = guess(input, status().isOk());
+        assertEquals("Guessed incorrectly.", output.getResult(), "result");
+        assertEquals(game.getId(), output.getId(), "id");
+        assertEquals(game.getOriginalWord(), output.getOriginalWord(), "originalWord");
+        assertNotNull(output.getScrambleWord(), "scrambleWord");
+        assertNull(output.getGuessWord(), "guessWord");
+        assertEquals(game.getTotalWords(), output.getTotalWords(), "totalWords");
+        assertEquals(game.getRemainingWords(), output.getRemainingWords(), "remainingWords");
+        assertTrue(output.getGuessedWords().isEmpty(), "guessedWords.isEmpty");
     }
 
     @Test
@@ -138,7 +215,19 @@ class GameApiControllerTest {
          * h) `remainingWords` is equals to `remainingWords` of previous game state (no change)
          * i) `guessedWords` is empty list (because this is first attempt)
          */
-        assertTrue(false, "to be implemented");
+        GameGuessOutput game = newGame();
+        GameGuessInput input = new GameGuessInput();
+        input.setId(game.getId());
+        input.setWord("xyzzy");
+        GameGuessOutput output = guess(input, status().isOk());
+        assertEquals("Guessed incorrectly.", output.getResult(), "result");
+        assertEquals(game.getId(), output.getId(), "id");
+        assertEquals(game.getOriginalWord(), output.getOriginalWord(), "originalWord");
+        assertNotNull(output.getScrambleWord(), "scrambleWord");
+        assertEquals(input.getWord(), output.getGuessWord(), "guessWord");
+        assertEquals(game.getTotalWords(), output.getTotalWords(), "totalWords");
+        assertEquals(game.getRemainingWords(), output.getRemainingWords(), "remainingWords");
+        assertTrue(output.getGuessedWords().isEmpty(), "guessedWords.isEmpty");
     }
 
     @Test
@@ -165,7 +254,20 @@ class GameApiControllerTest {
          * i) `guessedWords` is not empty list
          * j) `guessWords` contains input `guessWord`
          */
-        assertTrue(false, "to be implemented");
+        GameGuessOutput game = newGame();
+        GameGuessInput input = new GameGuessInput();
+        input.setId(game.getId());
+        input.setWord(correctWords(game.getId()).get(0));
+        GameGuessOutput output = guess(input, status().isOk());
+        assertEquals("Guessed correctly.", output.getResult(), "result");
+        assertEquals(game.getId(), output.getId(), "id");
+        assertEquals(game.getOriginalWord(), output.getOriginalWord(), "originalWord");
+        assertNotNull(output.getScrambleWord(), "scrambleWord");
+        assertEquals(input.getWord(), output.getGuessWord(), "guessWord");
+        assertEquals(game.getTotalWords(), output.getTotalWords(), "totalWords");
+        assertEquals(game.getRemainingWords() - 1, output.getRemainingWords(), "remainingWords");
+        assertFalse(output.getGuessedWords().isEmpty(), "guessedWords.isEmpty");
+        assertTrue(output.getGuessedWords().contains(input.getWord()), "guessedWords.contains");
     }
 
     @Test
@@ -193,7 +295,66 @@ class GameApiControllerTest {
          * i) `guessedWords` is not empty list
          * j) `guessWords` contains input `guessWord`
          */
-        assertTrue(false, "to be implemented");
+        GameGuessOutput game = newGame();
+        List<String> correctWords = correctWords(game.getId());
+        GameGuessInput input = new GameGuessInput();
+        input.setId(game.getId());
+        for (String word : correctWords.subList(0, correctWords.size() - 1)) {
+            input.setWord(word);
+            assertEquals("Guessed correctly.", guess(input, status().isOk()).getResult(), "result");
+        }
+        input.setWord(correctWords.get(correctWords.size() - 1));
+        GameGuessOutput output = guess(input, status().isOk());
+        assertEquals("All words guessed.", output.getResult(), "result");
+        assertEquals(game.getId(), output.getId(), "id");
+        assertEquals(game.getOriginalWord(), output.getOriginalWord(), "originalWord");
+        assertNotNull(output.getScrambleWord(), "scrambleWord");
+        assertEquals(input.getWord(), output.getGuessWord(), "guessWord");
+        assertEquals(game.getTotalWords(), output.getTotalWords(), "totalWords");
+        assertEquals(0, output.getRemainingWords(), "remainingWords");
+        assertFalse(output.getGuessedWords().isEmpty(), "guessedWords.isEmpty");
+        assertTrue(output.getGuessedWords().contains(input.getWord()), "guessedWords.contains");
+    }
+
+    @Test
+    void givenCount_whenCreateNewGames_thenStreamedOnePerLine() throws Exception {
+        MvcResult started = this.mvc.perform(post("/api/game/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"count\": 20, \"length\": 5, \"min_length\": 3}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = this.mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(GameApiController.APPLICATION_NDJSON_VALUE))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(20, lines.length, "lines");
+        Set<String> ids = new HashSet<>();
+        for (String line : lines) {
+            GameGuessOutput output = OM.readValue(line, GameGuessOutput.class);
+            assertEquals("Created new game.", output.getResult(), "result");
+            assertNotNull(output.getId(), "id");
+            assertEquals(5, output.getOriginalWord().length(), "originalWord.length");
+            assertNotNull(output.getScrambleWord(), "scrambleWord");
+            assertEquals(output.getTotalWords(), output.getRemainingWords(), "remainingWords");
+            assertTrue(output.getGuessedWords().isEmpty(), "guessedWords");
+            ids.add(output.getId());
+        }
+        assertEquals(20, ids.size(), "unique ids");
+    }
+
+    @Test
+    void givenInvalidInput_whenCreateNewGames_thenBadRequest() throws Exception {
+        this.mvc.perform(post("/api/game/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"count\": 0}"))
+                .andExpect(status().isBadRequest());
+        this.mvc.perform(post("/api/game/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"count\": 2, \"length\": 4, \"min_length\": 5}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.result").value("Expect minLength=[5] greater than length=[4]"));
     }
 
 }
@@ -1,5 +1,6 @@
 package asia.fourtitude.interviewq.jumble.controller;
 
+import static org.hamcrest.MatcherAssert.*;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
@@ -11,6 +12,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import asia.fourtitude.interviewq.jumble.core.JumbleEngine;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -19,6 +23,9 @@ class RootControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private JumbleEngine jumbleEngine;
+
     @Test
     void whenVisitHomePage_thenExpectTimeNow() throws Exception {
         this.mockMvc.perform(get("/"))
@@ -262,6 +269,21 @@ class RootControllerTest {
                 .andExpect(content().string(containsString("The number of words: ")));
     }
 
+    @Test
+    void givenEmptyLength_whenExecSearch_thenAnyLength() throws Exception {
+        // empty means any length (not 1)
+        int count = this.jumbleEngine.searchWords('a', 'e', null).size();
+        assertThat(count, greaterThan(this.jumbleEngine.searchWords('a', 'e', 1).size()));
+        this.mockMvc.perform(post("/search")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("startChar", "a")
+                        .param("endChar", "e")
+                        .param("length", ""))
+                .andExpect(view().name("search"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<p>The number of words: <span>" + count + "</span></p>")));
+    }
+
     @Test
     void givenAllEmpty_whenExecSearch_thenFailure() throws Exception {
         this.mockMvc.perform(post("/search")
@@ -317,6 +339,20 @@ class RootControllerTest {
                 .andExpect(content().string(containsString("<p>The number of words: <span>13</span></p>")));
     }
 
+    @Test
+    void givenValidWord_whenExecSubWordsAsync_thenSuccess() throws Exception {
+        String word = "tomato";
+        MvcResult started = this.mockMvc.perform(post("/subWords/async")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("word", word))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(started))
+                .andExpect(view().name("subWords"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<p>The number of words: <span>13</span></p>")));
+    }
+
     @Test
     void givenInvalidWord_whenExecSubWords_thenSuccess() throws Exception {
         String word = "drucke";
@@ -0,0 +1,117 @@
+package asia.fourtitude.interviewq.jumble.controller;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import asia.fourtitude.interviewq.jumble.TestConfig;
+
+@WebMvcTest(WordApiController.class)
+@Import(TestConfig.class)
+class WordApiControllerTest {
+
+    static final ObjectMapper OM = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void givenJsonArray_whenExists_thenBooleansInSameOrder() throws Exception {
+        this.mvc.perform(post("/api/word/exists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"panda\", \"fourtitude\", \"MaNGoS\", \"\"]"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("[true, false, true, false]", true));
+    }
+
+    @Test
+    void givenNdjson_whenExists_thenBooleansInSameOrder() throws Exception {
+        this.mvc.perform(post("/api/word/exists")
+                        .contentType(WordApiController.APPLICATION_NDJSON_VALUE)
+                        .content("\"lemon\"\n\"xyzzyx\"\n\"LEMON\"\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[true, false, true]", true));
+    }
+
+    @Test
+    void givenBitmapFormat_whenExists_thenBitPerWord() throws Exception {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            words.add(i % 3 == 0 ? "panda" : "zzzq" + i);
+        }
+        MvcResult result = this.mvc.perform(post("/api/word/exists")
+                        .param("format", "bitmap")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(OM.writeValueAsString(words)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andReturn();
+        byte[] bitmap = result.getResponse().getContentAsByteArray();
+        assertEquals(2, bitmap.length, "bitmap.length");
+        for (int i = 0; i < words.size(); i++) {
+            boolean bit = (bitmap[i / 8] & (1 << (i % 8))) != 0;
+            assertEquals(i % 3 == 0, bit, "bit " + i);
+        }
+    }
+
+    @Test
+    void givenMalformedNdjson_whenExists_thenBadRequest() throws Exception {
+        this.mvc.perform(post("/api/word/exists")
+                        .contentType(WordApiController.APPLICATION_NDJSON_VALUE)
+                        .content("\"lemon\"\n{not json\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void givenMalformedJsonArray_whenExists_thenBadRequest() throws Exception {
+        for (String body : new String[] { "{\"word\": \"lemon\"}", "[\"lemon\", ", "[\"lemon\", {}]" }) {
+            this.mvc.perform(post("/api/word/exists")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void givenTooManyWordsInJsonArray_whenExists_thenPayloadTooLargeBeforeTheRest() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i <= 100000; i++) {
+            body.append("\"w\",");
+        }
+        // never read, the limit is hit before
+        body.append("{not json");
+        this.mvc.perform(post("/api/word/exists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.toString()))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void givenTooManyWords_whenExists_thenPayloadTooLarge() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i <= 100000; i++) {
+            body.append("\"w\"\n");
+        }
+        this.mvc.perform(post("/api/word/exists")
+                        .contentType(WordApiController.APPLICATION_NDJSON_VALUE)
+                        .content(body.toString()))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(content().string(is(emptyString())));
+    }
+
+}
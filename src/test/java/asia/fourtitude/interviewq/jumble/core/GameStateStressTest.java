@@ -0,0 +1,132 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import asia.fourtitude.interviewq.jumble.model.GameGuessModel;
+
+/**
+ * Guesses the same games from many threads at once, jcstress style:
+ * many short rounds, each starting all the threads together on a fresh
+ * game, then checks no guess was lost nor counted twice.
+ */
+class GameStateStressTest {
+
+    private static final int THREADS = 8;
+
+    /*
+     * More than 64, so the guessed bits span several words.
+     */
+    private static final int WORDS = 150;
+
+    private static String[] words(int count) {
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            words[i] = "word" + i;
+        }
+        return words;
+    }
+
+    /*
+     * Runs `task(thread)` on all the threads, released together.
+     */
+    private static <T> List<T> race(ExecutorService pool, int threads, TaskFactory<T> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            Callable<T> callable = task.create(thread);
+            futures.add(pool.submit(() -> {
+                start.await();
+                return callable.call();
+            }));
+        }
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private interface TaskFactory<T> {
+
+        Callable<T> create(int thread);
+
+    }
+
+    @Test
+    void givenThreadsGuessingAllWords_whenRace_thenEveryWordCountedOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < 200; round++) {
+                GameState state = new GameState("original", "scramble", words(WORDS));
+                race(pool, THREADS, thread -> () -> {
+                    List<String> shuffled = new ArrayList<>();
+                    Collections.addAll(shuffled, words(WORDS));
+                    Collections.shuffle(shuffled, new Random(thread));
+                    for (String word : shuffled) {
+                        assertTrue(state.updateGuessWord(word), word);
+                    }
+                    return null;
+                });
+                assertEquals(WORDS, state.getGuessedCount(), "guessedCount, round " + round);
+                assertEquals(0, state.getRemainingCount(), "remainingCount, round " + round);
+                List<String> guessed = state.getGuessedWords();
+                assertEquals(WORDS, guessed.size(), "guessedWords, round " + round);
+                assertEquals(WORDS, new HashSet<>(guessed).size(), "distinct guessedWords, round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenTwoThreadsGuessingNeighbourWords_whenRace_thenBothKept() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20_000; round++) {
+                // both bits in the same 64 bit word, so the CAS contend
+                GameState state = new GameState("original", "scramble", words(2));
+                race(pool, 2, thread -> () -> state.updateGuessWord("word" + thread));
+                assertEquals(2, state.getGuessedCount(), "guessedCount, round " + round);
+                assertEquals(Boolean.TRUE, state.getSubWords().get("word0"), "word0, round " + round);
+                assertEquals(Boolean.TRUE, state.getSubWords().get("word1"), "word1, round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenThreadsPlayingSameBoard_whenRace_thenLatestModifiedAtKept() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < 1_000; round++) {
+                GameGuessModel board = new GameGuessModel();
+                board.setModifiedAt(new Date(0));
+                race(pool, THREADS, thread -> () -> {
+                    board.updateModifiedAt(new Date(1000 + thread));
+                    return null;
+                });
+                assertEquals(new Date(1000 + THREADS - 1), board.getModifiedAt(), "modifiedAt, round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+}
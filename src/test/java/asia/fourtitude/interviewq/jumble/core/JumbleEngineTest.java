@@ -2,9 +2,20 @@ package asia.fourtitude.interviewq.jumble.core;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
@@ -31,6 +42,15 @@ class JumbleEngineTest {
         assertEquals(61, engine.retrievePalindromeWords().size(), "retrievePalindromeWords.size()");
     }
 
+    @Test
+    void givenPalindromes_whenRetrievedAgain_thenSameDecodedWords() {
+        Collection<String> palindromes = engine.retrievePalindromeWords();
+        assertSame(palindromes, engine.retrievePalindromeWords(), "retrievePalindromeWords");
+        assertSame(palindromes.iterator().next(), palindromes.iterator().next(), "decoded once");
+        assertThrows(UnsupportedOperationException.class, () -> palindromes.add("aha"), "unmodifiable");
+        assertSame(engine.retrievePalindromeWordsJson(), engine.retrievePalindromeWordsJson(), "retrievePalindromeWordsJson");
+    }
+
     @Test
     void randomWord() {
         assertNotNull(engine.pickOneRandomWord(null), "length=null");
@@ -59,6 +79,19 @@ class JumbleEngineTest {
         assertTrue(engine.exists("MaNGoS"), "word=MaNGoS");
     }
 
+    @Test
+    void givenBloomFilter_thenEveryWordExistsAndNonWordsCounted() {
+        for (int length = 1; length <= 22; length++) {
+            for (String word : engine.searchWords(null, null, length)) {
+                assertTrue(engine.exists(word.toUpperCase()), "word=" + word);
+            }
+        }
+        BloomFilterMetrics metrics = engine.getBloomFilterMetrics();
+        long before = metrics.getRejected() + metrics.getFalsePositives();
+        assertFalse(engine.exists("fourtitude"), "word=fourtitude");
+        assertEquals(before + 1, metrics.getRejected() + metrics.getFalsePositives(), "rejected+falsePositives");
+    }
+
     @Test
     void givenInvalidPrefix_thenEmptyList() {
         assertEquals(0, engine.wordsMatchingPrefix(null).size(), "prefix=null");
@@ -192,4 +225,126 @@ class JumbleEngineTest {
         assertThrows(IllegalArgumentException.class, () -> { engine.createGameState(4, 5); }, "length=4;minLength=5");
     }
 
+    @Test
+    void givenAnagrams_whenGenerateSubWords_thenServedFromCache() {
+        SubWordCacheMetrics metrics = engine.getSubWordCacheMetrics();
+        engine.generateSubWords("evil", 3);
+        long hits = metrics.getHits();
+        // same letters: "evil" is a sub word of "live", "live" is not
+        Collection<String> subWords = engine.generateSubWords("live", 3);
+        assertEquals(hits + 1, metrics.getHits(), "hits");
+        assertTrue(subWords.contains("evil"), "evil");
+        assertFalse(subWords.contains("live"), "live");
+    }
+
+    @Test
+    void givenLongWord_whenParallel_thenSameAsSequential() {
+        EngineSettings settings = new EngineSettings();
+        settings.setGamePoolEnabled(false);
+        settings.setSubWordCacheEnabled(false);
+        settings.setSubWordParallelism(4);
+        settings.setSubWordParallelThreshold(16);
+        try (JumbleEngine parallel = new JumbleEngine(settings)) {
+            for (String word : new String[] { "thermodynamics", "institutionalization", "fusion" }) {
+                assertEquals(engine.generateSubWords(word, 3), parallel.generateSubWords(word, 3), "word=" + word);
+            }
+        }
+    }
+
+    @Test
+    void givenGamePool_whenCreateGameState_thenTakenFromPool() throws Exception {
+        GamePoolMetrics metrics = engine.getGamePoolMetrics();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (metrics.getAvailable() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        long hits = metrics.getHits();
+        GameState state = engine.createGameState(6, 3);
+        assertEquals(6, state.getOriginal().length(), "original.length");
+        assertEquals(hits + 1, metrics.getHits(), "hits");
+        assertNotSame(state, engine.createGameState(6, 3), "taken once");
+    }
+
+    @Test
+    void givenGameState_whenGuess_thenCountsAndOrderKept() {
+        Map<String, Boolean> subWords = new TreeMap<>();
+        for (String word : new String[] { "rug", "burg", "bug", "grub", "bur" }) {
+            subWords.put(word, Boolean.FALSE);
+        }
+        GameState state = new GameState("burger", "rerugb", subWords);
+        assertEquals(5, state.getTotalCount(), "totalCount");
+        assertEquals(0, state.getGuessedCount(), "guessedCount");
+        assertTrue(state.updateGuessWord("grub"), "guess=grub");
+        assertTrue(state.updateGuessWord("rug"), "guess=rug");
+        assertTrue(state.updateGuessWord("rug"), "guess=rug again");
+        assertTrue(state.updateGuessWord("bug"), "guess=bug");
+        assertFalse(state.updateGuessWord("burger"), "guess=burger");
+        assertEquals(3, state.getGuessedCount(), "guessedCount");
+        assertEquals(2, state.getRemainingCount(), "remainingCount");
+        assertEquals(Arrays.asList("bug", "rug", "grub"), state.getGuessedWords(), "guessedWords");
+        assertEquals(Arrays.asList("bug", "bur", "burg", "grub", "rug"), new ArrayList<>(state.getSubWords().keySet()), "subWords");
+        assertEquals(Boolean.TRUE, state.getSubWords().get("grub"), "subWords[grub]");
+        assertEquals(Boolean.FALSE, state.getSubWords().get("burg"), "subWords[burg]");
+        assertNull(state.getSubWords().get("burger"), "subWords[burger]");
+    }
+
+    @Test
+    void givenGameState_whenPutSubWords_thenOnlyExistingUpdated() {
+        Map<String, Boolean> subWords = new TreeMap<>();
+        for (String word : new String[] { "rug", "bug", "grub" }) {
+            subWords.put(word, Boolean.FALSE);
+        }
+        GameState state = new GameState("burger", "rerugb", subWords);
+        assertEquals(Boolean.FALSE, state.getSubWords().put("rug", Boolean.TRUE), "put=rug");
+        assertEquals(1, state.getGuessedCount(), "guessedCount");
+        assertEquals(Boolean.TRUE, state.getSubWords().put("rug", Boolean.FALSE), "put=rug again");
+        assertEquals(0, state.getGuessedCount(), "guessedCount");
+        assertThrows(UnsupportedOperationException.class, () -> { state.getSubWords().put("burger", Boolean.TRUE); }, "put=burger");
+        assertThrows(UnsupportedOperationException.class, () -> { state.getSubWords().remove("rug"); }, "remove=rug");
+        assertEquals(3, state.getTotalCount(), "totalCount");
+
+        Map<String, Boolean> copy = new TreeMap<>(state.getSubWords());
+        copy.put("burger", Boolean.TRUE);
+        assertEquals(4, copy.size(), "copy.size");
+        assertEquals(3, state.getTotalCount(), "totalCount after copy");
+    }
+
+    @Test
+    void givenCount_whenCreateGameStates_thenAllHandedOver() throws Exception {
+        Queue<GameState> states = new ConcurrentLinkedQueue<>();
+        engine.createGameStates(50, 5, 4, states::add).get(30, TimeUnit.SECONDS);
+        assertEquals(50, states.size(), "states.size");
+        for (GameState state : states) {
+            assertEquals(5, state.getOriginal().length(), "original.length");
+        }
+        assertThrows(IllegalArgumentException.class, () -> { engine.createGameStates(0, 5, 4, states::add); }, "count=0");
+        assertThrows(IllegalArgumentException.class, () -> { engine.createGameStates(5, 4, 5, states::add); }, "length=4;minLength=5");
+    }
+
+    @Test
+    void givenExternalWordList_whenReplaced_thenReloaded(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("words.txt");
+        Files.write(file, Arrays.asList("alpha", "beta"));
+        EngineSettings settings = new EngineSettings();
+        settings.setDictionaryPath(file.toString());
+        try (JumbleEngine external = new JumbleEngine(settings)) {
+            assertTrue(external.exists("alpha"), "word=alpha");
+            assertFalse(external.exists("omega"), "word=omega");
+            GameState state = external.createGameState(5, 4);
+
+            Path temp = dir.resolve("words.tmp");
+            Files.write(temp, Arrays.asList("alpha", "omega"));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (! external.exists("omega") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertTrue(external.exists("omega"), "word=omega");
+            assertFalse(external.exists("beta"), "word=beta");
+            // games created before the reload keep their own words
+            assertEquals("alpha", state.getOriginal(), "original");
+            assertFalse(state.updateGuessWord("omega"), "guess=omega");
+        }
+    }
+
 }
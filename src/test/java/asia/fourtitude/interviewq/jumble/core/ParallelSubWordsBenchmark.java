@@ -0,0 +1,65 @@
+package asia.fourtitude.interviewq.jumble.core;
+
+import java.util.Collection;
+
+/**
+ * Measures `generateSubWords` on long words, sequential versus parallel
+ * with 2, 4 and 8 threads. Not a unit test, run by hand:
+ *
+ *     mvn test-compile exec:java -Dexec.classpathScope=test \
+ *         -Dexec.mainClass=asia.fourtitude.interviewq.jumble.core.ParallelSubWordsBenchmark
+ *
+ * The speedup is bounded by the CPUs of the host (printed first).
+ */
+public class ParallelSubWordsBenchmark {
+
+    private static final String[] WORDS = {
+            "counterrevolutionaries",   // 22 letters
+            "institutionalization",     // 20 letters
+            "uncharacteristically",     // 20 letters
+            "abcdefghijklmnop",         // 16 distinct letters
+            "hydrodynamicist",          // 15 letters
+            "thermodynamics" };         // 14 letters
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) {
+        System.out.printf("CPUs: %d%n", Runtime.getRuntime().availableProcessors());
+        double sequential = 0;
+        for (int threads : new int[] { 1, 2, 4, 8 }) {
+            EngineSettings settings = new EngineSettings();
+            settings.setGamePoolEnabled(false);
+            settings.setSubWordCacheEnabled(false);
+            settings.setSubWordParallelEnabled(threads > 1);
+            settings.setSubWordParallelism(threads);
+            try (JumbleEngine engine = new JumbleEngine(settings)) {
+                long count = 0;
+                for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                    count = run(engine);
+                }
+                long start = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                    run(engine);
+                }
+                double millis = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+                if (threads == 1) {
+                    sequential = millis;
+                }
+                System.out.printf("threads=%d  %8.2f ms/round  speedup=%.2fx  (%d sub words)%n",
+                        threads, millis, sequential / millis, count);
+            }
+        }
+    }
+
+    private static long run(JumbleEngine engine) {
+        long count = 0;
+        for (String word : WORDS) {
+            Collection<String> subWords = engine.generateSubWords(word, 3);
+            count += subWords.size();
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,474 @@
+package asia.fourtitude.interviewq.jumble.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Load generator of the REST game API, against a running instance (eg:
+ * `mvn spring-boot:run`), to find the games and guesses per second it
+ * sustains. Not a unit test, run by hand:
+ *
+ *     mvn test-compile exec:java -Dexec.classpathScope=test \
+ *         -Dexec.mainClass=asia.fourtitude.interviewq.jumble.load.GameApiLoadGenerator \
+ *         -Dexec.args="url=http://localhost:8080 rate=50 duration=60"
+ *
+ * Each session replays a player:
+ *
+ * - `GET /api/game/new`;
+ * - a burst of `GET /api/word/{prefix}` per guess, one per keystroke
+ *   (from 3 letters, as the API does not complete shorter prefixes);
+ * - `POST /api/game/guess`, right (a sub word the prefixes found within
+ *   the letters, never the original word, which the game does not count)
+ *   or wrong (the scramble shuffled) by `wrong-ratio`. Until a prefix
+ *   found a sub word, a right guess types the original word first.
+ *
+ * The guesses are reported as right or wrong by what the game answered,
+ * so the mix and the latencies of each are the ones actually served.
+ *
+ * Open model: sessions start at `rate` per second (Poisson arrivals),
+ * whether or not the earlier ones are done, as real players do. So a
+ * slow server gets a growing backlog instead of a slower load, and the
+ * latencies are measured from when each request was due to be sent
+ * (not when it was), which keeps the queueing in the percentiles
+ * (no coordinated omission). Within a session too: each request is due
+ * `think-millis` after the previous one was due, not after its response,
+ * so a slow response shows in the latencies of the requests behind it.
+ *
+ * Arguments, as `key=value` (defaults):
+ *
+ * - url (http://localhost:8080): the instance.
+ * - rate (20): sessions started per second.
+ * - duration (30): seconds of load, after `warmup`.
+ * - warmup (5): seconds of load not reported.
+ * - guesses (8): guesses per session.
+ * - wrong-ratio (0.5): fraction of wrong guesses.
+ * - think-millis (100): time between the requests of a session, as
+ *   between the keystrokes of a player.
+ * - max-sessions (10000): sessions in flight, past which new ones are
+ *   dropped (and reported) instead of exhausting the client.
+ * - timeout-millis (10000): connect and read timeout.
+ * - report (5): seconds between the progress lines.
+ *
+ * Prints the requests of each interval as it goes, then the HdrHistogram
+ * latency percentiles, throughput and error rate of each request.
+ */
+public class GameApiLoadGenerator {
+
+    private static final ObjectMapper OM = new ObjectMapper();
+
+    /**
+     * 1 microsecond to 1 hour, 3 significant digits.
+     */
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    enum Request {
+        NEW("GET /api/game/new"),
+        PREFIX("GET /api/word/{prefix}"),
+        GUESS_RIGHT("POST /api/game/guess right"),
+        GUESS_WRONG("POST /api/game/guess wrong");
+
+        final String label;
+
+        Request(String label) {
+            this.label = label;
+        }
+    }
+
+    /*
+     * Latencies (microseconds) and errors of a request: the interval
+     * recorder, and the total of the measured intervals.
+     */
+    private static final class Stats {
+
+        final Recorder recorder = new Recorder(HIGHEST_MICROS, 3);
+
+        final Histogram total = new Histogram(HIGHEST_MICROS, 3);
+
+        final LongAdder errors = new LongAdder();
+
+        long totalErrors;
+
+        Histogram interval;
+
+    }
+
+    private final Map<String, String> args;
+
+    private final String url;
+
+    private final long thinkNanos;
+
+    private final int guesses;
+
+    private final double wrongRatio;
+
+    private final int timeoutMillis;
+
+    private final Map<Request, Stats> stats = new EnumMap<>(Request.class);
+
+    private final LongAdder sessions = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private long lastReport;
+
+    private long measuredNanos;
+
+    GameApiLoadGenerator(Map<String, String> args) {
+        this.args = args;
+        this.url = arg("url", "http://localhost:8080").replaceAll("/+$", "");
+        this.thinkNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(arg("think-millis", "100")));
+        if (this.thinkNanos <= 0) {
+            throw new IllegalArgumentException("Invalid think-millis=[" + arg("think-millis", "100") + "], expect positive number");
+        }
+        this.guesses = Integer.parseInt(arg("guesses", "8"));
+        this.wrongRatio = Double.parseDouble(arg("wrong-ratio", "0.5"));
+        this.timeoutMillis = Integer.parseInt(arg("timeout-millis", "10000"));
+        for (Request request : Request.values()) {
+            this.stats.put(request, new Stats());
+        }
+    }
+
+    private String arg(String key, String defaultValue) {
+        String value = this.args.get(key);
+        return (value == null) ? defaultValue : value;
+    }
+
+    public static void main(String[] argv) throws InterruptedException {
+        Map<String, String> args = new LinkedHashMap<>();
+        for (String arg : argv) {
+            int at = arg.indexOf('=');
+            if (at < 1) {
+                throw new IllegalArgumentException("Invalid argument=[" + arg + "], expect key=value");
+            }
+            args.put(arg.substring(0, at), arg.substring(at + 1));
+        }
+        // keep alive the connections of all the sessions in flight
+        System.setProperty("http.maxConnections", args.containsKey("max-sessions") ? args.get("max-sessions") : "10000");
+        new GameApiLoadGenerator(args).run();
+    }
+
+    void run() throws InterruptedException {
+        double rate = Double.parseDouble(arg("rate", "20"));
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Invalid rate=[" + rate + "], expect positive number");
+        }
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(arg("warmup", "5")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(arg("duration", "30")));
+        long reportNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(arg("report", "5")));
+        Semaphore slots = new Semaphore(Integer.parseInt(arg("max-sessions", "10000")));
+        System.out.printf("url=%s, rate=%.1f sessions/s, guesses=%d, wrong-ratio=%.2f, warmup=%ds, duration=%ds%n",
+                this.url, rate, this.guesses, this.wrongRatio,
+                TimeUnit.NANOSECONDS.toSeconds(warmupNanos), TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "load-session-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        long nextReport = start + reportNanos;
+        this.lastReport = start;
+        long arrival = start;
+        while (arrival < end) {
+            // exponential inter-arrival times: a Poisson process of `rate`
+            arrival += (long) (-Math.log(1 - random.nextDouble()) / rate * 1e9);
+            long now;
+            while ((now = System.nanoTime()) < arrival) {
+                if (now >= nextReport) {
+                    // measures the intervals past the warmup only
+                    report(start, now, this.lastReport >= measureFrom);
+                    nextReport += reportNanos;
+                }
+                TimeUnit.NANOSECONDS.sleep(Math.min(arrival, nextReport) - now);
+            }
+            if (! slots.tryAcquire()) {
+                this.dropped.increment();
+                continue;
+            }
+            long due = arrival;
+            this.inFlight.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    session(due);
+                } finally {
+                    this.inFlight.decrementAndGet();
+                    slots.release();
+                }
+            });
+        }
+        // the sessions in flight still count, as their latencies are the worst
+        executor.shutdown();
+        if (! executor.awaitTermination(this.timeoutMillis * 2L, TimeUnit.MILLISECONDS)) {
+            System.out.printf("sessions still in flight: %d%n", this.inFlight.get());
+            executor.shutdownNow();
+        }
+        report(start, System.nanoTime(), this.lastReport >= measureFrom);
+        summary();
+    }
+
+    /*
+     * One player: creates a game, then types and guesses words. `due`
+     * is when the session was due to start, and each request after is
+     * due `think-millis` after the previous one was.
+     */
+    private void session(long due) {
+        this.sessions.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        JsonNode game = call(Request.NEW, due, "GET", "/api/game/new", null);
+        if (game == null) {
+            return;
+        }
+        String id = game.path("id").asText();
+        String original = game.path("original_word").asText();
+        String scramble = game.path("scramble_word").asText();
+        List<String> known = new ArrayList<>();
+        for (int i = 0; i < this.guesses; i++) {
+            boolean wrong = random.nextDouble() < this.wrongRatio;
+            String word;
+            if (wrong) {
+                word = shuffle(scramble, random);
+            } else {
+                if (known.isEmpty()) {
+                    // nothing found yet, so looks within the original word
+                    due = type(original, due, known, original);
+                }
+                wrong = known.isEmpty();
+                word = wrong ? shuffle(scramble, random) : known.get(random.nextInt(known.size()));
+            }
+            due = type(word, due, known, original);
+            ObjectNode input = OM.createObjectNode();
+            input.put("id", id);
+            input.put("word", word);
+            due = next(due);
+            call(wrong ? Request.GUESS_WRONG : Request.GUESS_RIGHT, due, "POST", "/api/game/guess", input);
+        }
+    }
+
+    /*
+     * Types `word`, one `GET /api/word/{prefix}` per keystroke, and keeps
+     * the sub words of `original` the first prefix found.
+     *
+     * @return  When the last keystroke was due.
+     */
+    private long type(String word, long due, List<String> known, String original) {
+        for (int length = 3; length <= word.length(); length++) {
+            due = next(due);
+            JsonNode words = call(Request.PREFIX, due, "GET", "/api/word/" + encode(word.substring(0, length)), null);
+            if (words != null && length == 3) {
+                addCandidates(known, words, original);
+            }
+        }
+        return due;
+    }
+
+    /*
+     * Waits for the request after the one due at `due`, on the schedule
+     * of the session: late if the previous response was.
+     */
+    private long next(long due) {
+        due += this.thinkNanos;
+        long wait = due - System.nanoTime();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return due;
+    }
+
+    /*
+     * Keeps the words completed from a prefix which are made of the
+     * letters of `original`, but not `original` itself: the sub words,
+     * the right guesses.
+     */
+    private static void addCandidates(List<String> known, JsonNode words, String original) {
+        for (JsonNode node : words) {
+            String word = node.asText();
+            if (word.length() <= original.length() && ! word.equals(original) && ! known.contains(word)
+                    && madeOf(word, original)) {
+                known.add(word);
+            }
+        }
+    }
+
+    private static boolean madeOf(String word, String letters) {
+        int[] counts = new int[128];
+        for (int i = 0; i < letters.length(); i++) {
+            counts[letters.charAt(i) & 127]++;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (--counts[word.charAt(i) & 127] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String shuffle(String letters, ThreadLocalRandom random) {
+        List<Character> chars = new ArrayList<>();
+        for (char c : letters.toCharArray()) {
+            chars.add(c);
+        }
+        Collections.shuffle(chars, random);
+        StringBuilder sb = new StringBuilder(chars.size());
+        for (Character c : chars) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static String encode(String path) {
+        try {
+            return URLEncoder.encode(path, StandardCharsets.UTF_8.name()).replace("+", "%20");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * Sends a request, and records its latency since `due`. A guess is
+     * recorded as right or wrong by the answer, its errors as sent.
+     *
+     * @return  The response, or null on error (counted).
+     */
+    private JsonNode call(Request request, long due, String method, String path, JsonNode body) {
+        Stats stats = this.stats.get(request);
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(this.url + path).openConnection();
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(this.timeoutMillis);
+            connection.setReadTimeout(this.timeoutMillis);
+            connection.setRequestProperty("Accept", "application/json");
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    OM.writeValue(out, body);
+                }
+            }
+            int status = connection.getResponseCode();
+            byte[] response = readFully(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+            if (status != HttpURLConnection.HTTP_OK) {
+                stats.errors.increment();
+                return null;
+            }
+            JsonNode node = OM.readTree(response);
+            if (request == Request.GUESS_RIGHT || request == Request.GUESS_WRONG) {
+                boolean wrong = "Guessed incorrectly.".equals(node.path("result").asText());
+                stats = this.stats.get(wrong ? Request.GUESS_WRONG : Request.GUESS_RIGHT);
+            }
+            stats.recorder.recordValue(Math.min(Math.max(micros, 1), HIGHEST_MICROS));
+            return node;
+        } catch (IOException e) {
+            stats.errors.increment();
+            if (connection != null) {
+                // drain, so the connection can be reused
+                try {
+                    readFully(connection.getErrorStream());
+                } catch (IOException ignored) {
+                    // closed anyway
+                }
+            }
+            return null;
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        if (in == null) {
+            return new byte[0];
+        }
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /*
+     * Prints the requests since the last report, and adds them to the
+     * totals if `measured`.
+     */
+    private void report(long start, long now, boolean measured) {
+        if (measured) {
+            this.measuredNanos += now - this.lastReport;
+        }
+        this.lastReport = now;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%6.1fs%s inFlight=%d", (now - start) / 1e9, measured ? "" : " (warmup)",
+                this.inFlight.get()));
+        for (Request request : Request.values()) {
+            Stats stats = this.stats.get(request);
+            stats.interval = stats.recorder.getIntervalHistogram(stats.interval);
+            long errors = stats.errors.sumThenReset();
+            if (measured) {
+                stats.total.add(stats.interval);
+                stats.totalErrors += errors;
+            }
+            sb.append(String.format(Locale.ROOT, " | %s n=%d p99=%.1fms err=%d", request.name(),
+                    stats.interval.getTotalCount(), stats.interval.getValueAtPercentile(99) / 1000.0, errors));
+        }
+        System.out.println(sb);
+    }
+
+    private void summary() {
+        double seconds = Math.max(this.measuredNanos / 1e9, 1e-3);
+        System.out.printf(Locale.ROOT, "%nmeasured=%.1fs, sessions=%d, dropped=%d (client at max-sessions)%n",
+                seconds, this.sessions.sum(), this.dropped.sum());
+        System.out.printf("%-28s %10s %8s %8s %9s %9s %9s %9s %9s%n",
+                "request", "count", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Request request : Request.values()) {
+            Stats stats = this.stats.get(request);
+            Histogram total = stats.total;
+            long count = total.getTotalCount();
+            double errorRate = (count + stats.totalErrors == 0) ? 0 : 100.0 * stats.totalErrors / (count + stats.totalErrors);
+            System.out.printf(Locale.ROOT, "%-28s %10d %8.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    request.label, count, count / seconds, errorRate,
+                    total.getValueAtPercentile(50) / 1000.0, total.getValueAtPercentile(90) / 1000.0,
+                    total.getValueAtPercentile(99) / 1000.0, total.getValueAtPercentile(99.9) / 1000.0,
+                    total.getMaxValue() / 1000.0);
+        }
+    }
+
+}
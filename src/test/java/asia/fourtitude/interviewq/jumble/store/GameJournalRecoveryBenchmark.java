@@ -0,0 +1,168 @@
+package asia.fourtitude.interviewq.jumble.store;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import asia.fourtitude.interviewq.jumble.core.GameState;
+import asia.fourtitude.interviewq.jumble.core.JumbleEngine;
+import asia.fourtitude.interviewq.jumble.model.GameGuessModel;
+
+/**
+ * Measures the {@link JournaledGameRepository}: the latency of a guess
+ * (async and synced commit), and the time to recover a million games,
+ * from the journal only, then from a snapshot plus the journal tail.
+ * Not a unit test, run by hand (with enough heap for the games):
+ *
+ *     mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *         -Dexec.args="-Xmx3g -cp %classpath asia.fourtitude.interviewq.jumble.store.GameJournalRecoveryBenchmark"
+ *
+ * Writes to a temporary directory (deleted after), so measures that disk.
+ */
+public class GameJournalRecoveryBenchmark {
+
+    private static final int GAMES = 1_000_000;
+
+    private static final int DISTINCT_GAMES = 1_000;
+
+    private static final int BATCH = 10_000;
+
+    private static final int SYNC_WAIT_GUESSES = 2_000;
+
+    public static void main(String[] args) throws IOException {
+        List<GameState> templates = new ArrayList<>();
+        try (JumbleEngine engine = new JumbleEngine()) {
+            for (int i = 0; i < DISTINCT_GAMES; i++) {
+                templates.add(engine.createGameState(6, 3));
+            }
+        }
+        // journal only, then with snapshots every 64MB
+        for (long segmentBytes : new long[] { Long.MAX_VALUE, 64L * 1024 * 1024 }) {
+            Path dir = Files.createTempDirectory("jumble-journal");
+            try {
+                run(dir, segmentBytes, templates);
+            } finally {
+                delete(dir);
+            }
+        }
+    }
+
+    private static void run(Path dir, long segmentBytes, List<GameState> templates) throws IOException {
+        System.out.printf("segmentBytes=%d%n", segmentBytes);
+        GameStoreSettings settings = settings(dir, segmentBytes);
+        List<String> ids = new ArrayList<>(GAMES);
+        try (JournaledGameRepository repository = new JournaledGameRepository(settings)) {
+            long start = System.nanoTime();
+            List<GameGuessModel> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < GAMES; i++) {
+                GameGuessModel board = newBoard(templates.get(i % templates.size()));
+                ids.add(board.getId());
+                batch.add(board);
+                if (batch.size() == BATCH) {
+                    repository.putAll(batch);
+                    batch.clear();
+                }
+            }
+            System.out.printf("  created games=%d in %d ms%n", GAMES, (System.nanoTime() - start) / 1_000_000);
+
+            long[] nanos = new long[GAMES];
+            for (int i = 0; i < GAMES; i++) {
+                GameGuessModel board = repository.get(ids.get(i));
+                long t = System.nanoTime();
+                play(repository, board);
+                nanos[i] = System.nanoTime() - t;
+            }
+            print("guess (async commit)", nanos);
+            System.out.printf("  journal %s%n", repository.getJournalMetrics());
+        }
+        System.out.printf("  files %s%n", files(dir));
+
+        settings.setJournalSyncWait(true);
+        try (JournaledGameRepository repository = new JournaledGameRepository(settings)) {
+            System.out.printf("  recovered games=%d in %d ms%n", repository.size(),
+                    repository.getJournalMetrics().getRecoveryMillis());
+            long[] nanos = new long[SYNC_WAIT_GUESSES];
+            for (int i = 0; i < SYNC_WAIT_GUESSES; i++) {
+                GameGuessModel board = repository.get(ids.get(i));
+                long t = System.nanoTime();
+                play(repository, board);
+                nanos[i] = System.nanoTime() - t;
+            }
+            print("guess (synced commit)", nanos);
+        }
+    }
+
+    private static GameStoreSettings settings(Path dir, long segmentBytes) {
+        GameStoreSettings settings = new GameStoreSettings();
+        settings.setMaxSize(GAMES);
+        settings.setJournalDir(dir.toString());
+        settings.setJournalSegmentBytes(segmentBytes);
+        return settings;
+    }
+
+    private static GameGuessModel newBoard(GameState template) {
+        GameGuessModel board = new GameGuessModel();
+        board.setId(UUID.randomUUID().toString());
+        board.setGameState(new GameState(template.getOriginal(), template.getScramble(), template.getSubWords()));
+        return board;
+    }
+
+    /*
+     * Guesses the first sub word not guessed yet, as the controller does.
+     */
+    private static void play(GameRepository repository, GameGuessModel board) {
+        GameState state = board.getGameState();
+        String word = null;
+        for (Map.Entry<String, Boolean> entry : state.getSubWords().entrySet()) {
+            if (entry.getValue() == Boolean.FALSE) {
+                word = entry.getKey();
+                break;
+            }
+        }
+        state.updateGuessWord(word);
+        board.setModifiedAt(new Date());
+        repository.played(board, word);
+    }
+
+    private static void print(String name, long[] nanos) {
+        Arrays.sort(nanos);
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", 0.50);
+        percentiles.put("p99", 0.99);
+        percentiles.put("p99.9", 0.999);
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Double> entry : percentiles.entrySet()) {
+            long value = nanos[(int) Math.min(nanos.length - 1, nanos.length * entry.getValue())];
+            sb.append(String.format("  %s=%.1f us", entry.getKey(), value / 1e3));
+        }
+        System.out.printf("  %s:%s  max=%.1f us%n", name, sb, nanos[nanos.length - 1] / 1e3);
+    }
+
+    private static List<String> files(Path dir) throws IOException {
+        List<String> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream) {
+                files.add(path.getFileName() + " " + Files.size(path) / (1024 * 1024) + "MB");
+            }
+        }
+        return files;
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(dir);
+    }
+
+}
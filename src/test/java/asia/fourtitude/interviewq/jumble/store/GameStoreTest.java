@@ -0,0 +1,175 @@
+package asia.fourtitude.interviewq.jumble.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import asia.fourtitude.interviewq.jumble.model.GameGuessModel;
+
+class GameStoreTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private GameStore newStore(int maxSize) {
+        GameStoreSettings settings = new GameStoreSettings();
+        settings.setIdleTtl(Duration.ofSeconds(10));
+        settings.setAbsoluteTtl(Duration.ofSeconds(60));
+        settings.setMaxSize(maxSize);
+        return new GameStore(settings, clock::get, false);
+    }
+
+    private GameGuessModel newBoard(String id) {
+        GameGuessModel board = new GameGuessModel();
+        board.setId(id);
+        board.setCreatedAt(new Date(clock.get()));
+        board.setModifiedAt(new Date(clock.get()));
+        return board;
+    }
+
+    private void play(GameStore store, GameGuessModel board) {
+        board.setModifiedAt(new Date(clock.get()));
+        store.touch(board);
+    }
+
+    private void elapse(GameStore store, long millis) {
+        clock.addAndGet(millis);
+        store.expire();
+    }
+
+    @Test
+    void givenIdleGame_whenIdleTtlPassed_thenExpired() {
+        GameStore store = newStore(100);
+        store.put(newBoard("idle"));
+        GameGuessModel played = newBoard("played");
+        store.put(played);
+
+        elapse(store, 5_000);
+        play(store, played);
+        elapse(store, 6_000);
+
+        assertNull(store.get("idle"), "idle");
+        assertSame(played, store.get("played"), "played");
+        assertEquals(1, store.size(), "size");
+        assertEquals(1, store.getMetrics().getExpired(), "expired");
+        assertEquals(1, store.getMetrics().getLive(), "live");
+    }
+
+    @Test
+    void givenPlayedGame_whenAbsoluteTtlPassed_thenExpired() {
+        GameStore store = newStore(100);
+        GameGuessModel board = newBoard("played");
+        store.put(board);
+        for (int i = 0; i < 6; i++) {
+            elapse(store, 9_000);
+            assertSame(board, store.get("played"), "played after " + (i + 1) * 9 + "s");
+            play(store, board);
+        }
+        elapse(store, 9_000);
+        assertEquals(0, store.size(), "size");
+        assertNull(store.get("played"), "played after 63s");
+    }
+
+    @Test
+    void givenMaxSize_whenPutMore_thenClosestToExpiryEvicted() {
+        GameStore store = newStore(5);
+        for (int i = 0; i < 10; i++) {
+            store.put(newBoard("game-" + i));
+            elapse(store, 1_000);
+        }
+        assertEquals(5, store.size(), "size");
+        assertEquals(5, store.getMetrics().getEvicted(), "evicted");
+        assertNull(store.get("game-0"), "game-0");
+        assertNotNull(store.get("game-9"), "game-9");
+    }
+
+    @Test
+    void givenSustainedRate_whenExpiring_thenSizeStaysFlat() {
+        GameStore store = newStore(1_000_000);
+        int id = 0;
+        for (int second = 0; second < 120; second++) {
+            for (int i = 0; i < 100; i++) {
+                store.put(newBoard("game-" + id++));
+            }
+            elapse(store, 1_000);
+            if (second >= 10) {
+                // 10 seconds worth of games, give or take one tick
+                assertTrue(store.size() <= 1_100, "size=" + store.size() + " at " + second + "s");
+            }
+        }
+        assertEquals(id - store.size(), store.getMetrics().getExpired(), "expired");
+    }
+
+    @Test
+    void givenScheduledTicks_whenEarliest_thenSoonestFirst() {
+        TimingWheel<String> wheel = new TimingWheel<>(2, 100);
+        wheel.schedule("far", 5_000);
+        wheel.schedule("late", 140);
+        TimingWheel.Node<String> soon = wheel.schedule("soon", 120);
+        wheel.schedule("soon-after", 120);
+        wheel.schedule("later", 160);
+        List<String> order = new ArrayList<>();
+        for (TimingWheel.Node<String> node = wheel.earliest(); node != null; node = wheel.earliest()) {
+            order.add(node.item);
+            wheel.cancel(node);
+        }
+        assertEquals(Arrays.asList("soon", "soon-after", "late", "later", "far"), order, "order");
+        assertNull(wheel.earliest(), "earliest of empty wheel");
+
+        // past the slot of the current tick, wrapping around
+        wheel.advance(180, item -> fail("expired " + item));
+        wheel.reschedule(soon, 200);
+        wheel.schedule("next", 185);
+        assertEquals("next", wheel.earliest().item, "after wrap");
+    }
+
+    @Test
+    void givenRandomSchedule_whenAdvance_thenExpiredOnTimeOnly() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 100; trial++) {
+            long now = random.nextInt(100_000);
+            // 2 levels only, so long deadlines get parked
+            TimingWheel<long[]> wheel = new TimingWheel<>(2, now);
+            Map<long[], TimingWheel.Node<long[]>> scheduled = new IdentityHashMap<>();
+            for (int step = 0; step < 300; step++) {
+                int op = random.nextInt(4);
+                if (op < 2) {
+                    long deadline = now - 5 + random.nextInt(op == 0 ? 100 : 10_000);
+                    long[] item = { Math.max(deadline, now + 1) };
+                    scheduled.put(item, wheel.schedule(item, deadline));
+                } else if (op == 2 && ! scheduled.isEmpty()) {
+                    long[] item = scheduled.keySet().iterator().next();
+                    wheel.cancel(scheduled.remove(item));
+                } else {
+                    long to = now + random.nextInt(200);
+                    List<long[]> expired = new ArrayList<>();
+                    wheel.advance(to, expired::add);
+                    for (long[] item : expired) {
+                        assertTrue(item[0] <= to, "expired early");
+                        assertNotNull(scheduled.remove(item), "expired once");
+                    }
+                    for (long[] item : scheduled.keySet()) {
+                        assertTrue(item[0] > to, "missed deadline=" + item[0] + " at " + to);
+                    }
+                    now = to;
+                }
+                assertEquals(scheduled.size(), wheel.size(), "size");
+                TimingWheel.Node<long[]> earliest = wheel.earliest();
+                assertEquals(scheduled.isEmpty(), earliest == null, "earliest");
+                if (earliest != null) {
+                    assertSame(earliest, scheduled.get(earliest.item), "earliest scheduled");
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,188 @@
+package asia.fourtitude.interviewq.jumble.store;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import asia.fourtitude.interviewq.jumble.core.GameState;
+import asia.fourtitude.interviewq.jumble.model.GameGuessModel;
+
+class JournaledGameRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private JournaledGameRepository open(long segmentBytes) {
+        return open(segmentBytes, new GameStoreSettings().getMaxSize());
+    }
+
+    private JournaledGameRepository open(long segmentBytes, int maxSize) {
+        GameStoreSettings settings = new GameStoreSettings();
+        settings.setMaxSize(maxSize);
+        settings.setJournalDir(this.dir.toString());
+        settings.setJournalSyncInterval(Duration.ofMillis(1));
+        settings.setJournalSyncWait(true);
+        settings.setJournalSegmentBytes(segmentBytes);
+        return new JournaledGameRepository(settings);
+    }
+
+    private static GameGuessModel newBoard(String id) {
+        Map<String, Boolean> subWords = new TreeMap<>();
+        subWords.put("lemon", false);
+        subWords.put("melon", false);
+        subWords.put("mole", false);
+        GameGuessModel board = new GameGuessModel();
+        board.setId(id);
+        board.setGameState(new GameState("lemons", "nomels", subWords));
+        return board;
+    }
+
+    private static void play(GameRepository repository, GameGuessModel board, String word) {
+        board.getGameState().updateGuessWord(word);
+        board.setModifiedAt(new Date(board.getModifiedAt().getTime() + 1000));
+        repository.played(board, word);
+    }
+
+    private List<String> files(String prefix) throws IOException {
+        List<String> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.dir, prefix + "*")) {
+            for (Path path : stream) {
+                files.add(path.getFileName().toString());
+            }
+        }
+        return files;
+    }
+
+    @Test
+    void givenGamesPlayed_whenReopened_thenGamesRecovered() {
+        GameGuessModel played = newBoard("played");
+        Date modifiedAt;
+        try (JournaledGameRepository repository = open(1 << 20)) {
+            repository.put(played);
+            repository.put(newBoard("removed"));
+            play(repository, played, "melon");
+            play(repository, played, "nomel");
+            repository.remove("removed");
+            modifiedAt = played.getModifiedAt();
+            assertEquals(5, repository.getJournalMetrics().getRecords(), "records");
+        }
+
+        try (JournaledGameRepository repository = open(1 << 20)) {
+            assertEquals(1, repository.size(), "size");
+            assertNull(repository.get("removed"), "removed");
+            GameGuessModel recovered = repository.get("played");
+            assertNotNull(recovered, "played");
+            assertNotSame(played, recovered, "played");
+            assertEquals(played.getCreatedAt(), recovered.getCreatedAt(), "createdAt");
+            assertEquals(modifiedAt, recovered.getModifiedAt(), "modifiedAt");
+            GameState state = recovered.getGameState();
+            assertEquals("lemons", state.getOriginal(), "original");
+            assertEquals("nomels", state.getScramble(), "scramble");
+            assertEquals(3, state.getTotalCount(), "total");
+            assertEquals(1, state.getGuessedCount(), "guessed");
+            assertEquals(Boolean.TRUE, state.getSubWords().get("melon"), "melon");
+            assertEquals(1, repository.getJournalMetrics().getRecoveredGames(), "recoveredGames");
+        }
+    }
+
+    @Test
+    void givenMaxSize_whenGamesEvicted_thenNotRecovered() {
+        Set<String> kept = new TreeSet<>();
+        try (JournaledGameRepository repository = open(1 << 20, 3)) {
+            for (int i = 0; i < 10; i++) {
+                GameGuessModel board = newBoard("game-" + i);
+                repository.put(board);
+                play(repository, board, "lemon");
+            }
+            assertEquals(3, repository.size(), "size");
+            assertEquals(7, repository.getMetrics().getEvicted(), "evicted");
+            for (int i = 0; i < 10; i++) {
+                if (repository.get("game-" + i) != null) {
+                    kept.add("game-" + i);
+                }
+            }
+        }
+
+        // a larger store would keep them all, so only the journal drops them
+        try (JournaledGameRepository repository = open(1 << 20, 100)) {
+            assertEquals(3, repository.size(), "size");
+            for (int i = 0; i < 10; i++) {
+                assertEquals(kept.contains("game-" + i), repository.get("game-" + i) != null, "game-" + i);
+            }
+        }
+
+        // lowered since, evicted on recovery, and journaled as such
+        try (JournaledGameRepository repository = open(1 << 20, 1)) {
+            assertEquals(1, repository.size(), "size");
+            assertEquals(2, repository.getMetrics().getEvicted(), "evicted");
+        }
+        try (JournaledGameRepository repository = open(1 << 20, 100)) {
+            assertEquals(1, repository.size(), "size");
+        }
+    }
+
+    @Test
+    void givenSmallSegments_whenManyWrites_thenSnapshotCompactsJournal() throws Exception {
+        try (JournaledGameRepository repository = open(1024)) {
+            for (int i = 0; i < 200; i++) {
+                GameGuessModel board = newBoard("game-" + i);
+                repository.put(board);
+                play(repository, board, "lemon");
+            }
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (repository.getJournalMetrics().getSnapshots() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(repository.getJournalMetrics().getSnapshots() > 0, "snapshots");
+        }
+        assertFalse(files("snapshot-").isEmpty(), "snapshot files");
+        assertTrue(files("journal-").size() < 10, "journal files " + files("journal-"));
+
+        try (JournaledGameRepository repository = open(1024)) {
+            assertEquals(200, repository.size(), "size");
+            for (int i = 0; i < 200; i++) {
+                GameGuessModel board = repository.get("game-" + i);
+                assertNotNull(board, "game-" + i);
+                assertEquals(Boolean.TRUE, board.getGameState().getSubWords().get("lemon"), "game-" + i);
+            }
+        }
+    }
+
+    @Test
+    void givenTornTail_whenReopened_thenCompleteRecordsKept() throws IOException {
+        try (JournaledGameRepository repository = open(1 << 20)) {
+            repository.put(newBoard("first"));
+            repository.put(newBoard("second"));
+        }
+        List<String> segments = files("journal-");
+        assertEquals(1, segments.size(), "segments");
+        // a record cut short by a crash: length, crc, then half the body
+        Files.write(this.dir.resolve(segments.get(0)), new byte[] { 0, 0, 0, 100, 1, 2, 3, 4, 1, 0 },
+                StandardOpenOption.APPEND);
+
+        try (JournaledGameRepository repository = open(1 << 20)) {
+            assertEquals(2, repository.size(), "size");
+            repository.put(newBoard("third"));
+        }
+        try (JournaledGameRepository repository = open(1 << 20)) {
+            assertEquals(3, repository.size(), "size");
+            assertNotNull(repository.get("third"), "third");
+        }
+    }
+
+}